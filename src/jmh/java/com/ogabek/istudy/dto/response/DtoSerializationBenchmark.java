@@ -0,0 +1,82 @@
+package com.ogabek.istudy.dto.response;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ogabek.istudy.entity.Payment;
+import com.ogabek.istudy.entity.Student;
+import com.ogabek.istudy.support.BenchmarkData;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of writing the largest list responses to JSON, with an ObjectMapper configured the way
+ * Spring Boot configures the one used by the controllers (java.time as ISO strings).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DtoSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<StudentDto> students;
+    private List<PaymentDto> payments;
+
+    @Setup
+    public void setUp() {
+        writer = Jackson2ObjectMapperBuilder.json().build().writer();
+
+        BenchmarkData data = new BenchmarkData(1L, size, 40, 2025, 1);
+        students = new ArrayList<>(size);
+        for (Student student : data.students) {
+            StudentDto dto = new StudentDto(student.getId(), student.getFirstName(), student.getLastName(),
+                    student.getPhoneNumber(), student.getParentPhoneNumber(), data.branch.getId(),
+                    data.branch.getName(), student.getCreatedAt());
+            dto.getGroups().add(new StudentDto.GroupInfo(1L, "Group 1", new BigDecimal("500000"), "Teacher 1"));
+            dto.setHasPaidInMonth(true);
+            dto.setTotalPaidInMonth(new BigDecimal("500000"));
+            dto.setRemainingAmount(BigDecimal.ZERO);
+            dto.setPaymentStatus("PAID");
+            dto.setLastPaymentDate(student.getCreatedAt());
+            dto.setPaymentDayOfMonth(student.getPaymentDayOfMonth());
+            dto.setNextDueDate(LocalDate.of(2025, 2, student.getPaymentDayOfMonth()));
+            students.add(dto);
+        }
+
+        payments = new ArrayList<>(data.payments.size());
+        for (Payment payment : data.payments) {
+            PaymentDto dto = new PaymentDto();
+            dto.setId(payment.getId());
+            dto.setStudentId(payment.getStudent().getId());
+            dto.setStudentName(payment.getStudent().getFirstName() + " " + payment.getStudent().getLastName());
+            dto.setGroupId(payment.getGroup().getId());
+            dto.setGroupName(payment.getGroup().getName());
+            dto.setAmount(payment.getAmount());
+            dto.setCategory(payment.getCategory().name());
+            dto.setStatus(payment.getStatus().name());
+            dto.setBranchId(data.branch.getId());
+            dto.setBranchName(data.branch.getName());
+            dto.setPaymentYear(payment.getPaymentYear());
+            dto.setPaymentMonth(payment.getPaymentMonth());
+            dto.setCreatedAt(payment.getCreatedAt());
+            payments.add(dto);
+        }
+    }
+
+    @Benchmark
+    public byte[] studentList() throws Exception {
+        return writer.writeValueAsBytes(students);
+    }
+
+    @Benchmark
+    public byte[] paymentList() throws Exception {
+        return writer.writeValueAsBytes(payments);
+    }
+}
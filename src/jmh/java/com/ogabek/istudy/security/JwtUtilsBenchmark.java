@@ -0,0 +1,78 @@
+package com.ogabek.istudy.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token in {@link JwtAuthTokenFilter}.
+ * <ul>
+ *     <li>{@code legacyDoubleParse} - the old path: new key + parser, token parsed twice</li>
+ *     <li>{@code singleParseUncached} - shared parser, one verification per request</li>
+ *     <li>{@code singleParseCached} - shared parser with the verified-token cache hit</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtUtilsBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyThatIsLongEnoughForHS256";
+
+    private JwtUtils cachedJwtUtils;
+    private JwtUtils uncachedJwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        cachedJwtUtils = newJwtUtils(10_000);
+        uncachedJwtUtils = newJwtUtils(0);
+        token = cachedJwtUtils.generateJwtToken("admin");
+    }
+
+    @Benchmark
+    public String legacyDoubleParse() {
+        Jwts.parser()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token);
+        return Jwts.parser()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    @Benchmark
+    public String singleParseUncached() {
+        Claims claims = uncachedJwtUtils.parseJwtToken(token);
+        return claims.getSubject();
+    }
+
+    @Benchmark
+    public String singleParseCached() {
+        Claims claims = cachedJwtUtils.parseJwtToken(token);
+        return claims.getSubject();
+    }
+
+    private static JwtUtils newJwtUtils(long cacheSize) throws Exception {
+        JwtUtils jwtUtils = new JwtUtils();
+        setField(jwtUtils, "jwtSecret", SECRET);
+        setField(jwtUtils, "jwtExpirationMs", 86400000);
+        setField(jwtUtils, "jwtRefreshExpirationMs", 604800000);
+        setField(jwtUtils, "verifiedTokenCacheSize", cacheSize);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
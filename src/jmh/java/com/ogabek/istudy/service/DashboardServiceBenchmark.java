@@ -0,0 +1,93 @@
+package com.ogabek.istudy.service;
+
+import com.ogabek.istudy.config.ReadYourWrites;
+import com.ogabek.istudy.dto.response.DashboardStatsDto;
+import com.ogabek.istudy.entity.Branch;
+import com.ogabek.istudy.entity.Payment;
+import com.ogabek.istudy.entity.Role;
+import com.ogabek.istudy.entity.User;
+import com.ogabek.istudy.repository.*;
+import com.ogabek.istudy.security.BranchAccessControl;
+import com.ogabek.istudy.support.BenchmarkData;
+import com.ogabek.istudy.support.RepositoryStubs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of the super admin dashboard in {@link DashboardService}, which sums every payment
+ * of every branch with {@link BigDecimal#add}. The payments are already in memory, so this is
+ * the aggregation alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DashboardServiceBenchmark {
+
+    private static final int BRANCHES = 10;
+
+    @Param({"1000", "10000"})
+    private int paymentsPerBranch;
+
+    private DashboardService dashboardService;
+
+    @Setup
+    public void setUp() {
+        List<Branch> branches = new ArrayList<>();
+        Map<Long, List<Payment>> paymentsByBranch = new HashMap<>();
+        for (long id = 1; id <= BRANCHES; id++) {
+            // Roughly nine in ten students pay, so size the branch to get the requested payment count
+            BenchmarkData data = new BenchmarkData(id, paymentsPerBranch * 10 / 9, 40, 2025, 1);
+            branches.add(data.branch);
+            paymentsByBranch.put(id, data.payments);
+        }
+
+        User superAdmin = new User();
+        superAdmin.setUsername("superadmin");
+        superAdmin.setRole(Role.SUPER_ADMIN);
+        UserRepository userRepository = RepositoryStubs.stub(UserRepository.class)
+                .returning("findByUsername", Optional.of(superAdmin))
+                .returning("count", 20L)
+                .build();
+
+        // JMH calls the benchmark from its own worker threads
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("superadmin", null, List.of()));
+
+        dashboardService = new DashboardService(
+                RepositoryStubs.stub(BranchRepository.class)
+                        .returning("count", (long) BRANCHES)
+                        .returning("findAll", branches)
+                        .build(),
+                userRepository,
+                RepositoryStubs.stub(StudentRepository.class).returning("count", 20_000L).build(),
+                RepositoryStubs.stub(TeacherRepository.class).returning("count", 200L).build(),
+                RepositoryStubs.stub(GroupRepository.class).returning("count", 400L).build(),
+                RepositoryStubs.stub(PaymentRepository.class)
+                        .returning("sumMonthlyPayments", new BigDecimal("100000000"))
+                        .answer("findByBranchId", args -> paymentsByBranch.get((Long) args[0]))
+                        .build(),
+                new BranchAccessControl(userRepository),
+                new SingleFlight(new SimpleMeterRegistry(), new ReadYourWrites(5000)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public DashboardStatsDto superAdminStats() {
+        return dashboardService.getDashboardStats();
+    }
+}
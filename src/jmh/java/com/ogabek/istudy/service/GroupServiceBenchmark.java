@@ -0,0 +1,44 @@
+package com.ogabek.istudy.service;
+
+import com.ogabek.istudy.dto.response.GroupDto;
+import com.ogabek.istudy.repository.*;
+import com.ogabek.istudy.support.BenchmarkData;
+import com.ogabek.istudy.support.RepositoryStubs;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of {@link GroupService} mapping a branch's groups to DTOs, including splitting
+ * {@code daysOfWeek} and counting students of each group.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GroupServiceBenchmark {
+
+    @Param({"20", "100"})
+    private int groups;
+
+    private GroupService groupService;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData data = new BenchmarkData(1L, groups * 25, groups, 2025, 1);
+
+        groupService = new GroupService(
+                RepositoryStubs.stub(GroupRepository.class)
+                        .returning("findByBranchIdWithAllRelations", data.groups)
+                        .build(),
+                RepositoryStubs.stub(TeacherRepository.class).build(),
+                RepositoryStubs.stub(BranchRepository.class).build(),
+                RepositoryStubs.stub(StudentRepository.class).build(),
+                RepositoryStubs.stub(PaymentRepository.class).build());
+    }
+
+    @Benchmark
+    public List<GroupDto> groupsByBranch() {
+        return groupService.getGroupsByBranch(1L);
+    }
+}
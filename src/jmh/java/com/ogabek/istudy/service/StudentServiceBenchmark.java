@@ -0,0 +1,101 @@
+package com.ogabek.istudy.service;
+
+import com.ogabek.istudy.config.LongStatements;
+import com.ogabek.istudy.config.ReadYourWrites;
+import com.ogabek.istudy.dto.response.StudentDto;
+import com.ogabek.istudy.entity.Student;
+import com.ogabek.istudy.repository.BranchRepository;
+import com.ogabek.istudy.repository.GroupRepository;
+import com.ogabek.istudy.repository.PaymentRepository;
+import com.ogabek.istudy.repository.StudentRepository;
+import com.ogabek.istudy.support.BenchmarkData;
+import com.ogabek.istudy.support.RepositoryStubs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of {@link StudentService} building the student list, with the repositories answering
+ * from memory.
+ * <ul>
+ *     <li>{@code studentsByBranch} - full list: group lookup, DTO mapping and payment status per student</li>
+ *     <li>{@code paymentStatus} - the payment status calculation for one student on its own</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StudentServiceBenchmark {
+
+    private static final MethodHandle CALCULATE_PAYMENT_STATUS;
+
+    static {
+        try {
+            CALCULATE_PAYMENT_STATUS = MethodHandles.privateLookupIn(StudentService.class, MethodHandles.lookup())
+                    .findVirtual(StudentService.class, "calculatePaymentStatus",
+                            MethodType.methodType(void.class, StudentDto.class, Long.class, int.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"100", "500"})
+    private int students;
+
+    @Param({"40"})
+    private int groups;
+
+    private StudentService studentService;
+    private Student student;
+    private int year;
+    private int month;
+
+    @Setup
+    public void setUp() {
+        LocalDate today = LocalDate.now();
+        year = today.getYear();
+        month = today.getMonthValue();
+        BenchmarkData data = new BenchmarkData(1L, students, groups, year, month);
+        student = data.students.get(0);
+
+        StudentRepository studentRepository = RepositoryStubs.stub(StudentRepository.class)
+                .returning("findByBranchIdWithBranch", data.students)
+                .returning("hasStudentPaidInMonth", Boolean.TRUE)
+                .returning("getTotalPaidByStudentInMonth", new BigDecimal("400000"))
+                .returning("getExpectedMonthlyPaymentForStudent", new BigDecimal("500000"))
+                .returning("getLastPaymentDate", LocalDateTime.now().minusDays(3))
+                .build();
+        GroupRepository groupRepository = RepositoryStubs.stub(GroupRepository.class)
+                .returning("findByBranchIdWithAllRelations", data.groups)
+                .build();
+
+        studentService = new StudentService(studentRepository,
+                RepositoryStubs.stub(BranchRepository.class).build(),
+                RepositoryStubs.stub(PaymentRepository.class).build(),
+                groupRepository,
+                new SingleFlight(new SimpleMeterRegistry(), new ReadYourWrites(5000)),
+                new LongStatements(new JdbcTemplate(), "", 0));
+    }
+
+    @Benchmark
+    public List<StudentDto> studentsByBranch() {
+        return studentService.getStudentsByBranch(1L, year, month);
+    }
+
+    @Benchmark
+    public StudentDto paymentStatus() throws Throwable {
+        StudentDto dto = new StudentDto();
+        dto.setNextDueDate(LocalDate.of(year, month, student.getPaymentDayOfMonth()));
+        CALCULATE_PAYMENT_STATUS.invokeExact(studentService, dto, student.getId(), year, month);
+        return dto;
+    }
+}
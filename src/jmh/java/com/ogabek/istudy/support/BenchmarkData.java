@@ -0,0 +1,94 @@
+package com.ogabek.istudy.support;
+
+import com.ogabek.istudy.entity.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * In-memory entity graph for one branch, shaped like production data: every student is in one
+ * or two groups and most students pay each month.
+ */
+public final class BenchmarkData {
+
+    private static final String[] SCHEDULES = {
+            "MONDAY,WEDNESDAY,FRIDAY", "TUESDAY,THURSDAY,SATURDAY", "MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY"
+    };
+
+    public final Branch branch;
+    public final List<Teacher> teachers = new ArrayList<>();
+    public final List<Group> groups = new ArrayList<>();
+    public final List<Student> students = new ArrayList<>();
+    public final List<Payment> payments = new ArrayList<>();
+
+    public BenchmarkData(long branchId, int studentCount, int groupCount, int year, int month) {
+        SplittableRandom random = new SplittableRandom(branchId);
+        LocalDateTime createdAt = LocalDateTime.of(year, month, 1, 9, 0);
+
+        branch = new Branch();
+        branch.setId(branchId);
+        branch.setName("Branch " + branchId);
+        branch.setCreatedAt(createdAt);
+
+        for (int t = 0; t < Math.max(1, groupCount / 4); t++) {
+            Teacher teacher = new Teacher();
+            teacher.setId(branchId * 1_000 + t);
+            teacher.setFirstName("Teacher");
+            teacher.setLastName(String.valueOf(t));
+            teacher.setBranch(branch);
+            teachers.add(teacher);
+        }
+
+        for (int g = 0; g < groupCount; g++) {
+            Group group = new Group();
+            group.setId(branchId * 1_000 + g);
+            group.setName("Group " + g);
+            group.setPrice(BigDecimal.valueOf(300_000L + 100_000L * random.nextInt(5)));
+            group.setTeacherSalaryPerStudent(new BigDecimal("100000"));
+            group.setTeacher(teachers.get(g % teachers.size()));
+            group.setBranch(branch);
+            group.setStartTime("09:00");
+            group.setEndTime("10:30");
+            group.setDaysOfWeek(SCHEDULES[g % SCHEDULES.length]);
+            group.setStudents(new HashSet<>());
+            group.setCreatedAt(createdAt);
+            groups.add(group);
+        }
+
+        for (int s = 0; s < studentCount; s++) {
+            Student student = new Student();
+            student.setId(branchId * 100_000 + s);
+            student.setFirstName("Student");
+            student.setLastName(String.valueOf(s));
+            student.setPhoneNumber("+998901234567");
+            student.setParentPhoneNumber("+998907654321");
+            student.setBranch(branch);
+            student.setPaymentDayOfMonth(1 + random.nextInt(28));
+            student.setCreatedAt(createdAt);
+            students.add(student);
+
+            Group first = groups.get(random.nextInt(groupCount));
+            first.getStudents().add(student);
+            if (random.nextInt(10) < 3) {
+                groups.get(random.nextInt(groupCount)).getStudents().add(student);
+            }
+
+            if (random.nextInt(10) < 9) {
+                Payment payment = new Payment();
+                payment.setId(branchId * 100_000 + s);
+                payment.setStudent(student);
+                payment.setGroup(first);
+                payment.setBranch(branch);
+                payment.setAmount(first.getPrice());
+                payment.setPaymentYear(year);
+                payment.setPaymentMonth(month);
+                payment.setCreatedAt(createdAt.plusDays(random.nextInt(27)));
+                payments.add(payment);
+            }
+        }
+    }
+}
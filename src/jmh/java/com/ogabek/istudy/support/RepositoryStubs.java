@@ -0,0 +1,58 @@
+package com.ogabek.istudy.support;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Proxy-based repository stand-ins so a benchmark measures the service's own work and not the
+ * database. Only the methods given an answer may be called; anything else fails loudly so a
+ * service change that adds a query shows up instead of silently returning null.
+ */
+public final class RepositoryStubs {
+
+    private RepositoryStubs() {
+    }
+
+    public static <T> Builder<T> stub(Class<T> repositoryType) {
+        return new Builder<>(repositoryType);
+    }
+
+    public static final class Builder<T> {
+
+        private final Class<T> repositoryType;
+        private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+        private Builder(Class<T> repositoryType) {
+            this.repositoryType = repositoryType;
+        }
+
+        public Builder<T> answer(String method, Function<Object[], Object> answer) {
+            answers.put(method, answer);
+            return this;
+        }
+
+        public Builder<T> returning(String method, Object value) {
+            return answer(method, args -> value);
+        }
+
+        public T build() {
+            Object proxy = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                    (self, method, args) -> {
+                        Function<Object[], Object> answer = answers.get(method.getName());
+                        if (answer != null) {
+                            return answer.apply(args);
+                        }
+                        return switch (method.getName()) {
+                            case "toString" -> repositoryType.getSimpleName() + " stub";
+                            case "hashCode" -> System.identityHashCode(self);
+                            case "equals" -> self == args[0];
+                            default -> throw new UnsupportedOperationException(
+                                    repositoryType.getSimpleName() + "." + method.getName() + " is not stubbed");
+                        };
+                    });
+            return repositoryType.cast(proxy);
+        }
+    }
+}
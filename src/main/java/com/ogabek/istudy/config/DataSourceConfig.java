@@ -0,0 +1,112 @@
+package com.ogabek.istudy.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hikari pools behind one routing {@link DataSource}: the OLTP pool configured under
+ * {@code spring.datasource.*} for all writes, a small reporting pool under
+ * {@code app.datasource.reporting.*} for read-only report queries, and optionally one pool per
+ * read replica listed in {@code app.datasource.replicas.urls} for the remaining read-only
+ * transactions. The reporting pool defaults to the primary database but can point at a replica.
+ * Each pool has its own statement timeout, so a runaway report is cancelled long before it could
+ * hold up payment entry.
+ */
+@Configuration
+@Slf4j
+public class DataSourceConfig {
+
+    private static final String POSTGRES_URL_PREFIX = "jdbc:postgresql:";
+
+    @Bean
+    public HikariDataSource oltpDataSource(DataSourceProperties properties, Environment environment,
+                                           @Value("${app.datasource.oltp.statement-timeout-ms:5000}") long statementTimeoutMs) {
+        return createPool(properties, "spring.datasource.hikari", null, environment, statementTimeoutMs);
+    }
+
+    @Bean
+    public HikariDataSource reportingDataSource(Environment environment,
+                                                @Value("${app.datasource.reporting.statement-timeout-ms:60000}") long statementTimeoutMs) throws Exception {
+        DataSourceProperties properties = Binder.get(environment)
+                .bind("app.datasource.reporting", DataSourceProperties.class)
+                .orElseGet(DataSourceProperties::new);
+        properties.afterPropertiesSet();
+        return createPool(properties, "app.datasource.reporting.hikari", null, environment, statementTimeoutMs);
+    }
+
+    // Pools are started lazily, so an unreachable replica doesn't stop the application from starting
+    @Bean
+    public ReplicaSet replicaSet(DataSourceProperties primary, Environment environment,
+                                 @Value("${app.datasource.replicas.urls:}") List<String> urls,
+                                 @Value("${app.datasource.replicas.username:}") String username,
+                                 @Value("${app.datasource.replicas.password:}") String password,
+                                 @Value("${app.datasource.replicas.max-lag-seconds:5}") double maxLagSeconds,
+                                 @Value("${app.datasource.oltp.statement-timeout-ms:5000}") long statementTimeoutMs) throws Exception {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            DataSourceProperties properties = new DataSourceProperties();
+            properties.setUrl(url.trim());
+            properties.setUsername(username.isEmpty() ? primary.getUsername() : username);
+            properties.setPassword(password.isEmpty() ? primary.getPassword() : password);
+            properties.setDriverClassName(primary.getDriverClassName());
+            properties.afterPropertiesSet();
+            pools.add(createPool(properties, "app.datasource.replicas.hikari", "replica-" + (pools.size() + 1),
+                    environment, statementTimeoutMs));
+        }
+        return new ReplicaSet(pools, maxLagSeconds);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("oltpDataSource") HikariDataSource oltpDataSource,
+                                 @Qualifier("reportingDataSource") HikariDataSource reportingDataSource,
+                                 ReplicaSet replicaSet, ReadYourWrites readYourWrites) {
+        RoutingDataSource routing = new RoutingDataSource(replicaSet, readYourWrites);
+        routing.setTargetDataSources(Map.of(
+                RoutingDataSource.Route.OLTP, oltpDataSource,
+                RoutingDataSource.Route.REPORTING, reportingDataSource));
+        routing.setDefaultTargetDataSource(oltpDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private HikariDataSource createPool(DataSourceProperties properties, String hikariPrefix, String poolName,
+                                        Environment environment, long statementTimeoutMs) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind(hikariPrefix, Bindable.ofInstance(pool));
+        if (poolName != null) {
+            pool.setPoolName(poolName);
+        }
+
+        boolean postgres = pool.getJdbcUrl() != null && pool.getJdbcUrl().startsWith(POSTGRES_URL_PREFIX);
+        // Server-side timeout so the statement is cancelled in Postgres too, not just abandoned by the client
+        if (statementTimeoutMs > 0 && postgres) {
+            pool.addDataSourceProperty("options", "-c statement_timeout=" + statementTimeoutMs);
+        }
+        // Sends a JDBC insert batch as multi-row INSERTs instead of one statement per row
+        if (postgres) {
+            pool.addDataSourceProperty("reWriteBatchedInserts", "true");
+        }
+        log.info("Connection pool {}: max {} connections, statement timeout {}ms",
+                pool.getPoolName(), pool.getMaximumPoolSize(), statementTimeoutMs);
+        return pool;
+    }
+}
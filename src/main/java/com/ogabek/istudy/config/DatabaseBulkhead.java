@@ -0,0 +1,213 @@
+package com.ogabek.istudy.config;
+
+import com.ogabek.istudy.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Requests run on virtual threads, so nothing upstream limits how many of them reach the
+ * connection pools at once. This interceptor puts a fair semaphore in front of every API handler,
+ * sized to the Hikari pools, so excess requests wait here for a bounded time and then fail fast
+ * with 429 and {@code Retry-After} instead of sitting on Hikari's 30s connection timeout.
+ *
+ * <p>Report-style endpoints ({@code app.bulkhead.report-paths}) draw from permits sized to the
+ * reporting pool and have their read-only transactions routed there by {@link RoutingDataSource};
+ * interactive requests get permits sized to the OLTP pool. A burst of reports can therefore never
+ * take the connections interactive traffic needs. Background report work (report jobs, Excel
+ * workbooks) takes the same report permits through {@link #runAsReport}, but at most one fewer
+ * than there are, so report requests always have a permit that queued jobs can't hold.
+ *
+ * <p>Streaming exports ({@code app.bulkhead.export-paths}) hold their connection for as long as
+ * the client takes to download, so they get their own small share of the reporting pool
+ * ({@code app.bulkhead.export-permits}) and the report pages keep the rest.
+ */
+@Component
+@Slf4j
+public class DatabaseBulkhead implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = DatabaseBulkhead.class.getName() + ".permit";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<String> reportPaths;
+    private final List<String> exportPaths;
+    private final Compartment interactive;
+    private final Compartment report;
+    private final Compartment export;
+    // Caps how many report permits background work holds or waits for at once
+    private final Semaphore backgroundSlots;
+
+    public DatabaseBulkhead(MeterRegistry meterRegistry,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int oltpPoolSize,
+                            @Value("${app.datasource.reporting.hikari.maximum-pool-size:3}") int reportingPoolSize,
+                            @Value("${app.bulkhead.export-permits:1}") int exportPermits,
+                            @Value("${app.bulkhead.interactive-wait-ms:2000}") long interactiveWaitMs,
+                            @Value("${app.bulkhead.report-wait-ms:5000}") long reportWaitMs,
+                            @Value("${app.bulkhead.report-paths:/api/reports/**,/api/dashboard/**}") List<String> reportPaths,
+                            @Value("${app.bulkhead.export-paths:/api/exports/payments,/api/exports/attendance,/api/exports/students,/api/exports/expenses}") List<String> exportPaths) {
+        this.reportPaths = reportPaths;
+        this.exportPaths = exportPaths;
+        int reportPermits = Math.max(1, reportingPoolSize - exportPermits);
+        if (reportPermits + exportPermits > reportingPoolSize) {
+            log.warn("Reporting pool ({}) is smaller than report plus export permits ({} + {}); "
+                    + "requests may wait on the pool instead of the bulkhead", reportingPoolSize, reportPermits, exportPermits);
+        }
+        this.interactive = new Compartment("interactive", Math.max(1, oltpPoolSize), interactiveWaitMs, meterRegistry);
+        this.report = new Compartment("report", reportPermits, reportWaitMs, meterRegistry);
+        this.export = new Compartment("export", Math.max(1, exportPermits), reportWaitMs, meterRegistry);
+        int backgroundPermits = Math.max(1, reportPermits - 1);
+        this.backgroundSlots = new Semaphore(backgroundPermits, true);
+        Gauge.builder("istudy.db.bulkhead.available", backgroundSlots, Semaphore::availablePermits)
+                .description("Database permits currently free")
+                .tag("class", "background")
+                .register(meterRegistry);
+        if (reportPermits < 2) {
+            log.warn("Only one report permit; background report work can take it from requests");
+        }
+        log.info("Database bulkhead: {} interactive, {} report and {} export permits, at most {} report permits "
+                + "for background work", oltpPoolSize, reportPermits, exportPermits, backgroundPermits);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            // Async re-dispatch of a request that already holds its permit
+            return true;
+        }
+        String uri = request.getRequestURI();
+        Compartment compartment = matches(exportPaths, uri) ? export : matches(reportPaths, uri) ? report : interactive;
+        compartment.acquire();
+        request.setAttribute(PERMIT_ATTRIBUTE, compartment);
+        if (compartment != interactive) {
+            RoutingDataSource.markReportRequest();
+        }
+        return true;
+    }
+
+    /**
+     * An async request leaves the container thread here and keeps its permit until the re-dispatch
+     * completes, but the thread goes back to the pool, so the report marker must not stay on it.
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RoutingDataSource.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Compartment compartment) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            RoutingDataSource.clear();
+            compartment.semaphore.release();
+        }
+    }
+
+    /**
+     * Runs background report work under a report permit, with its read-only transactions routed
+     * to the reporting pool like a report request. Unlike a request it waits for a permit as long
+     * as it takes: the work is already queued and nobody is waiting for a 429. Only workers holding
+     * a background slot queue for a report permit, so jobs never take the last one from requests.
+     */
+    public <T> T runAsReport(Supplier<T> work) {
+        try {
+            backgroundSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a background slot", e);
+        }
+        try {
+            report.acquireBlocking();
+            RoutingDataSource.markReportRequest();
+            try {
+                return work.get();
+            } finally {
+                RoutingDataSource.clear();
+                report.semaphore.release();
+            }
+        } finally {
+            backgroundSlots.release();
+        }
+    }
+
+    private boolean matches(List<String> patterns, String uri) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, uri)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Compartment {
+
+        private final Semaphore semaphore;
+        private final long waitBudgetMs;
+        private final long retryAfterSeconds;
+        private final Timer waitTimer;
+        private final Counter rejectedCounter;
+
+        Compartment(String name, int permits, long waitBudgetMs, MeterRegistry meterRegistry) {
+            this.semaphore = new Semaphore(permits, true);
+            this.waitBudgetMs = waitBudgetMs;
+            this.retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitBudgetMs));
+            this.waitTimer = Timer.builder("istudy.db.bulkhead.wait")
+                    .description("Time a request waited for a database permit")
+                    .tag("class", name)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.rejectedCounter = Counter.builder("istudy.db.bulkhead.rejected")
+                    .description("Requests rejected because no database permit freed up in time")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder("istudy.db.bulkhead.available", semaphore, Semaphore::availablePermits)
+                    .description("Database permits currently free")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Gauge.builder("istudy.db.bulkhead.queued", semaphore, Semaphore::getQueueLength)
+                    .description("Requests waiting for a database permit")
+                    .tag("class", name)
+                    .register(meterRegistry);
+        }
+
+        void acquire() {
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = semaphore.tryAcquire(waitBudgetMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                rejectedCounter.increment();
+                throw new TooManyRequestsException("Server is busy. Please try again shortly.", retryAfterSeconds);
+            }
+        }
+
+        void acquireBlocking() {
+            long start = System.nanoTime();
+            try {
+                semaphore.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a database permit", e);
+            } finally {
+                waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
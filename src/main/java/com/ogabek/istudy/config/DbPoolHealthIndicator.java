@@ -0,0 +1,63 @@
+package com.ogabek.istudy.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Readiness check for the connection pools. The "db" indicator only proves that one connection
+ * works; this one reports OUT_OF_SERVICE while too many threads are queued for an OLTP
+ * connection, so traffic backs off instead of piling onto a saturated pool. The reporting pool
+ * is shown for information only: a queue of reports is no reason to stop taking payments.
+ */
+@Component("dbPool")
+public class DbPoolHealthIndicator implements HealthIndicator {
+
+    private final HikariDataSource oltpDataSource;
+    private final HikariDataSource reportingDataSource;
+    private final int maxPending;
+
+    public DbPoolHealthIndicator(@Qualifier("oltpDataSource") HikariDataSource oltpDataSource,
+                                 @Qualifier("reportingDataSource") HikariDataSource reportingDataSource,
+                                 @Value("${app.health.db-pool.max-pending:10}") int maxPending) {
+        this.oltpDataSource = oltpDataSource;
+        this.reportingDataSource = reportingDataSource;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public Health health() {
+        HikariPoolMXBean pool = oltpDataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return Health.unknown().withDetail("reason", "Pool not started").build();
+        }
+
+        int pending = pool.getThreadsAwaitingConnection();
+        Health.Builder builder = pending > maxPending ? Health.outOfService() : Health.up();
+        return builder
+                .withDetail("oltp", details(oltpDataSource))
+                .withDetail("reporting", details(reportingDataSource))
+                .withDetail("maxPending", maxPending)
+                .build();
+    }
+
+    private Map<String, Object> details(HikariDataSource dataSource) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            details.put("active", pool.getActiveConnections());
+            details.put("idle", pool.getIdleConnections());
+            details.put("total", pool.getTotalConnections());
+            details.put("pending", pool.getThreadsAwaitingConnection());
+        }
+        details.put("max", dataSource.getMaximumPoolSize());
+        return details;
+    }
+}
@@ -0,0 +1,39 @@
+package com.ogabek.istudy.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Raises the OLTP statement timeout for one transaction. The pool-wide
+ * {@code app.datasource.oltp.statement-timeout-ms} is sized for single-row reads and writes; the
+ * few OLTP paths known to run longer (whole-branch payment and student lists, bulk payments, the
+ * student import chunks, branch deletion) call {@link #allowInCurrentTransaction()} first and get
+ * {@code app.datasource.oltp.long-statement-timeout-ms} instead. The setting is transaction-local,
+ * so the connection goes back to the pool with the default.
+ */
+@Component
+public class LongStatements {
+
+    private static final String SET_TIMEOUT = "SELECT set_config('statement_timeout', ?, true)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final String timeout;
+
+    public LongStatements(JdbcTemplate jdbcTemplate,
+                          @Value("${spring.datasource.url:}") String url,
+                          @Value("${app.datasource.oltp.long-statement-timeout-ms:30000}") long timeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        // statement_timeout is only set on PostgreSQL pools (see DataSourceConfig)
+        this.enabled = timeoutMs > 0 && url.startsWith("jdbc:postgresql:");
+        this.timeout = timeoutMs + "ms";
+    }
+
+    public void allowInCurrentTransaction() {
+        if (enabled && TransactionSynchronizationManager.isActualTransactionActive()) {
+            jdbcTemplate.queryForObject(SET_TIMEOUT, String.class, timeout);
+        }
+    }
+}
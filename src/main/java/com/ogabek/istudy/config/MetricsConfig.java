@@ -0,0 +1,23 @@
+package com.ogabek.istudy.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Meters Spring Boot doesn't bind on its own. HTTP, JVM, Hikari and the Hibernate session
+ * factory totals are auto-configured by Actuator; the user details cache binds its own meters.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Execution count and min/avg/max time per HQL query, so the slowest queries can be found in Prometheus
+    @Bean
+    public MeterBinder hibernateQueryMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> HibernateQueryMetrics.monitor(registry,
+                entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory");
+    }
+}
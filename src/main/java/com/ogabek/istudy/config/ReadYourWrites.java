@@ -0,0 +1,60 @@
+package com.ogabek.istudy.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Remembers users who just wrote something, so their reads for the next
+ * {@code app.datasource.replicas.read-your-writes-ms} go to the primary instead of a replica that
+ * may not have the change yet. A cashier who records a payment sees it in the list right away.
+ */
+@Component
+public class ReadYourWrites {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(@Value("${app.datasource.replicas.read-your-writes-ms:5000}") long windowMs) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .maximumSize(10_000)
+                .build();
+    }
+
+    /**
+     * Opens the window for the current user once the surrounding transaction commits.
+     */
+    public void recordWrite() {
+        String username = currentUsername();
+        if (username == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(username, Boolean.TRUE);
+                }
+            });
+        } else {
+            recentWriters.put(username, Boolean.TRUE);
+        }
+    }
+
+    public boolean isRecentWriter() {
+        String username = currentUsername();
+        return username != null && recentWriters.getIfPresent(username) != null;
+    }
+
+    private String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
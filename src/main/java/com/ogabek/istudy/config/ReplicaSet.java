@@ -0,0 +1,132 @@
+package com.ogabek.istudy.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read replicas configured under {@code app.datasource.replicas.*}, handed out round-robin to
+ * read-only transactions. Each replica is polled for its replication lag; one that lags by more
+ * than {@code max-lag-seconds}, or can't be reached, is skipped until a later check finds it
+ * healthy again. With no healthy replica, reads fall back to the primary.
+ *
+ * <p>Health and lag are published as meters; being a {@link MeterBinder} bean, the set is bound
+ * to the registry by Actuator rather than taking one, which would tie the registry into the
+ * DataSource's dependencies.
+ */
+@Slf4j
+public class ReplicaSet implements MeterBinder {
+
+    // Zero when the replica has replayed everything it received; plain seconds behind otherwise
+    private static final String LAG_QUERY = """
+            SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END""";
+    private static final int CHECK_TIMEOUT_SECONDS = 2;
+
+    private final List<Replica> replicas;
+    private final double maxLagSeconds;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    public ReplicaSet(List<HikariDataSource> dataSources, double maxLagSeconds) {
+        this.replicas = dataSources.stream().map(Replica::new).toList();
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry meterRegistry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("istudy.db.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica currently receives read-only transactions")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+            Gauge.builder("istudy.db.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag seen by the last health check")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    /**
+     * Next healthy replica in round-robin order, or {@code null} when none is usable.
+     */
+    public Replica next() {
+        int size = replicas.size();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(cursor.getAndIncrement(), size));
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    public void markDown(Replica replica, Exception cause) {
+        if (replica.healthy) {
+            log.warn("Replica {} taken out of rotation: {}", replica.name(), cause.getMessage());
+        }
+        replica.healthy = false;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-interval-ms:5000}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(CHECK_TIMEOUT_SECONDS);
+                try (ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                    resultSet.next();
+                    replica.lagSeconds = resultSet.getDouble(1);
+                }
+            } catch (Exception e) {
+                markDown(replica, e);
+                continue;
+            }
+
+            boolean healthy = replica.lagSeconds <= maxLagSeconds;
+            if (healthy != replica.healthy) {
+                log.info("Replica {} {} (lag {}s)", replica.name(),
+                        healthy ? "back in rotation" : "taken out of rotation", replica.lagSeconds);
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    // Inferred as the bean's destroy method; the replica pools aren't beans themselves
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    public static class Replica {
+
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        public HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        public String name() {
+            return dataSource.getPoolName();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.ogabek.istudy.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Decides per transaction where its connection comes from:
+ * <ul>
+ *   <li>writes, and reads by a user who has just written ({@link ReadYourWrites}): the OLTP pool</li>
+ *   <li>read-only transactions of a report request: the reporting pool</li>
+ *   <li>other read-only transactions: the next healthy replica, or the OLTP pool if there is none</li>
+ * </ul>
+ * Report requests are marked by {@link DatabaseBulkhead}, which already classifies every API request.
+ *
+ * <p>Must sit behind a {@code LazyConnectionDataSourceProxy}: the read-only flag of a transaction
+ * is only visible once it has begun, i.e. after the connection would normally have been fetched.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { OLTP, REPORTING }
+
+    private static final ThreadLocal<Boolean> REPORT_REQUEST = new ThreadLocal<>();
+
+    private final ReplicaSet replicas;
+    private final ReadYourWrites readYourWrites;
+
+    public RoutingDataSource(ReplicaSet replicas, ReadYourWrites readYourWrites) {
+        this.replicas = replicas;
+        this.readYourWrites = readYourWrites;
+    }
+
+    public static void markReportRequest() {
+        REPORT_REQUEST.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        REPORT_REQUEST.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!replicas.isEmpty() && REPORT_REQUEST.get() == null && isReadOnlyWithoutRecentWrite()) {
+            ReplicaSet.Replica replica = replicas.next();
+            if (replica != null) {
+                try {
+                    return replica.dataSource().getConnection();
+                } catch (SQLException e) {
+                    replicas.markDown(replica, e);
+                }
+            }
+        }
+        return super.getConnection();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean reporting = REPORT_REQUEST.get() != null && isReadOnlyWithoutRecentWrite();
+        return reporting ? Route.REPORTING : Route.OLTP;
+    }
+
+    private boolean isReadOnlyWithoutRecentWrite() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !readYourWrites.isRecentWriter();
+    }
+}
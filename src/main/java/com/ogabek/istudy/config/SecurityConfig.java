@@ -1,6 +1,8 @@
 package com.ogabek.istudy.config;
 
+import com.ogabek.istudy.monitoring.ServerTimingFilter;
 import com.ogabek.istudy.security.JwtAuthTokenFilter;
+import com.ogabek.istudy.security.MetricsScrapeTokenFilter;
 import com.ogabek.istudy.security.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -30,10 +32,13 @@ public class SecurityConfig {
 
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtAuthTokenFilter jwtAuthTokenFilter;
+    private final MetricsScrapeTokenFilter metricsScrapeTokenFilter;
+    private final ServerTimingFilter serverTimingFilter;
 
     private static final String[] SWAGGER_WHITELIST = {
             "/",
             "/health",
+            "/health/**",
             "/v3/api-docs/**",
             "/swagger-ui/**",
             "/swagger-ui.html",
@@ -79,12 +84,17 @@ public class SecurityConfig {
                         .requestMatchers("/api/admin/branches/**").hasRole("SUPER_ADMIN")
                         .requestMatchers("/api/admin/users/**").hasRole("SUPER_ADMIN")
                         .requestMatchers("/api/admin/reports/all-branches/**").hasRole("SUPER_ADMIN")
+                        .requestMatchers("/api/admin/diagnostics/**").hasRole("SUPER_ADMIN")
                         .requestMatchers("/api/**").hasAnyRole("ADMIN", "SUPER_ADMIN")
+                        .requestMatchers(MetricsScrapeTokenFilter.SCRAPE_PATH).hasAnyRole("SUPER_ADMIN", "METRICS")
+                        .requestMatchers("/actuator/**").hasRole("SUPER_ADMIN")
                         .anyRequest().authenticated()
                 );
 
         // REMOVED: http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthTokenFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(metricsScrapeTokenFilter, JwtAuthTokenFilter.class);
+        http.addFilterBefore(serverTimingFilter, MetricsScrapeTokenFilter.class);
 
         return http.build();
     }
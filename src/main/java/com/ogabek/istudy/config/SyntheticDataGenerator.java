@@ -0,0 +1,385 @@
+package com.ogabek.istudy.config;
+
+import com.ogabek.istudy.entity.AttendanceStatus;
+import com.ogabek.istudy.entity.ExpenseCategory;
+import com.ogabek.istudy.entity.PaymentCategory;
+import com.ogabek.istudy.entity.PaymentStatus;
+import com.ogabek.istudy.entity.ProductCategory;
+import com.ogabek.istudy.service.SequenceIds;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the database with synthetic branches, teachers, groups, students and their history
+ * for load and scale testing. Rows are written with batched JDBC, not through JPA.
+ *
+ * <p>Run with {@code --spring.profiles.active=synthetic-data}; volumes are set with the
+ * {@code app.synthetic-data.*} properties (see application-synthetic-data.properties).
+ * The same seed produces the same data, ids aside.
+ *
+ * <p>PostgreSQL only. Ids are reserved from the entity sequences through {@link SequenceIds}, so
+ * the application keeps allocating from where the generator stopped.
+ * Do not run it against a database that is serving traffic.
+ */
+@Component
+@Profile("synthetic-data")
+@Order(Ordered.LOWEST_PRECEDENCE)
+@RequiredArgsConstructor
+@Slf4j
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final String[] FIRST_NAMES = {
+            "Aziz", "Bekzod", "Dilshod", "Jasur", "Sardor", "Otabek", "Akmal", "Bobur", "Sherzod", "Rustam",
+            "Madina", "Nilufar", "Malika", "Dilnoza", "Gulnora", "Shahnoza", "Zarina", "Kamola", "Sevara", "Nodira"
+    };
+    private static final String[] LAST_NAMES = {
+            "Karimov", "Rahimov", "Aliyev", "Tursunov", "Yusupov", "Nazarov", "Saidov", "Ismoilov", "Qodirov", "Ergashev"
+    };
+    private static final String[] SUBJECTS = {
+            "English", "Mathematics", "Physics", "Chemistry", "Biology", "IELTS", "Russian", "Korean", "History", "IT"
+    };
+    private static final BigDecimal[] GROUP_PRICES = {
+            new BigDecimal("300000"), new BigDecimal("400000"), new BigDecimal("500000"),
+            new BigDecimal("600000"), new BigDecimal("800000")
+    };
+    private static final String[] SCHEDULES = {
+            "MONDAY,WEDNESDAY,FRIDAY", "TUESDAY,THURSDAY,SATURDAY", "MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIds sequenceIds;
+    private final TransactionTemplate transactionTemplate;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Value("${app.synthetic-data.seed:42}")
+    private long seed;
+
+    @Value("${app.synthetic-data.branches:10}")
+    private int branches;
+
+    @Value("${app.synthetic-data.students-per-branch:2000}")
+    private int studentsPerBranch;
+
+    @Value("${app.synthetic-data.teachers-per-branch:20}")
+    private int teachersPerBranch;
+
+    @Value("${app.synthetic-data.groups-per-branch:80}")
+    private int groupsPerBranch;
+
+    @Value("${app.synthetic-data.months:36}")
+    private int months;
+
+    @Value("${app.synthetic-data.attendance-months:3}")
+    private int attendanceMonths;
+
+    @Value("${app.synthetic-data.expenses-per-month:10}")
+    private int expensesPerMonth;
+
+    @Value("${app.synthetic-data.product-sales-per-month:40}")
+    private int productSalesPerMonth;
+
+    @Value("${app.synthetic-data.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.synthetic-data.exit-on-completion:false}")
+    private boolean exitOnCompletion;
+
+    @Override
+    public void run(String... args) {
+        long started = System.currentTimeMillis();
+        log.info("Generating synthetic data: seed={}, branches={}, students/branch={}, months={}",
+                seed, branches, studentsPerBranch, months);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        YearMonth lastMonth = YearMonth.now();
+        YearMonth firstMonth = lastMonth.minusMonths(months - 1L);
+        LocalDate today = LocalDate.now();
+
+        long rows = 0;
+        for (int b = 0; b < branches; b++) {
+            // Each branch gets its own stream so volumes of one branch don't shift the next
+            rows += generateBranch(b, random.split(), firstMonth, lastMonth, today);
+        }
+
+        long seconds = Math.max(1, (System.currentTimeMillis() - started) / 1000);
+        log.info("Synthetic data generated: {} rows in {}s ({} rows/s)", rows, seconds, rows / seconds);
+
+        if (exitOnCompletion) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private long generateBranch(int index, SplittableRandom random, YearMonth firstMonth,
+                                YearMonth lastMonth, LocalDate today) {
+        LocalDateTime openedAt = firstMonth.atDay(1).atTime(9, 0);
+
+        long branchId = sequenceIds.reserve("branches_seq", 1)[0];
+        BatchWriter branchWriter = new BatchWriter(
+                "INSERT INTO branches (id, name, address, created_at) VALUES (?, ?, ?, ?)");
+        branchWriter.add(branchId, "Synthetic Branch " + (index + 1), "Street " + (index + 1), ts(openedAt));
+        branchWriter.flush();
+
+        // Teachers
+        long[] teacherIds = sequenceIds.reserve("teachers_seq", teachersPerBranch);
+        BatchWriter teacherWriter = new BatchWriter(
+                "INSERT INTO teachers (id, first_name, last_name, phone_number, email, branch_id, deleted, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, false, ?)");
+        for (int t = 0; t < teachersPerBranch; t++) {
+            long id = teacherIds[t];
+            teacherWriter.add(id, pick(random, FIRST_NAMES), pick(random, LAST_NAMES), phone(random),
+                    "teacher" + id + "@example.com", branchId, ts(openedAt));
+        }
+        teacherWriter.flush();
+
+        // Students
+        long[] studentIds = sequenceIds.reserve("students_seq", studentsPerBranch);
+        BatchWriter studentWriter = new BatchWriter(
+                "INSERT INTO students (id, first_name, last_name, phone_number, parent_phone_number, branch_id, " +
+                        "deleted, payment_day_of_month, created_at) VALUES (?, ?, ?, ?, ?, ?, false, ?, ?)");
+        int[] paymentDays = new int[studentsPerBranch];
+        for (int s = 0; s < studentsPerBranch; s++) {
+            paymentDays[s] = 1 + random.nextInt(28);
+            studentWriter.add(studentIds[s], pick(random, FIRST_NAMES), pick(random, LAST_NAMES),
+                    phone(random), phone(random), branchId, paymentDays[s], ts(openedAt));
+        }
+        studentWriter.flush();
+
+        // Groups
+        long[] groupIds = sequenceIds.reserve("groups_seq", groupsPerBranch);
+        BatchWriter groupWriter = new BatchWriter(
+                "INSERT INTO groups (id, name, description, price, teacher_salary_per_student, teacher_id, branch_id, " +
+                        "start_time, end_time, days_of_week, deleted, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, ?)");
+        BigDecimal[] groupPrices = new BigDecimal[groupsPerBranch];
+        long[] groupTeachers = new long[groupsPerBranch];
+        Set<DayOfWeek>[] groupDays = newDaySets(groupsPerBranch);
+        for (int g = 0; g < groupsPerBranch; g++) {
+            groupPrices[g] = pick(random, GROUP_PRICES);
+            groupTeachers[g] = teacherIds[random.nextInt(teachersPerBranch)];
+            String schedule = pick(random, SCHEDULES);
+            for (String day : schedule.split(",")) {
+                groupDays[g].add(DayOfWeek.valueOf(day));
+            }
+            int startHour = 8 + random.nextInt(11);
+            groupWriter.add(groupIds[g], pick(random, SUBJECTS) + " " + (g + 1), null, groupPrices[g],
+                    groupPrices[g].multiply(new BigDecimal("0.4")).setScale(2, RoundingMode.HALF_UP),
+                    groupTeachers[g], branchId, String.format("%02d:00", startHour),
+                    String.format("%02d:30", startHour + 1), schedule, ts(openedAt));
+        }
+        groupWriter.flush();
+
+        // Memberships: most students take one course, some take two
+        List<List<Integer>> members = new ArrayList<>(groupsPerBranch);
+        for (int g = 0; g < groupsPerBranch; g++) {
+            members.add(new ArrayList<>());
+        }
+        BatchWriter membershipWriter = new BatchWriter(
+                "INSERT INTO group_students (group_id, student_id) VALUES (?, ?)");
+        for (int s = 0; s < studentsPerBranch; s++) {
+            int first = random.nextInt(groupsPerBranch);
+            members.get(first).add(s);
+            membershipWriter.add(groupIds[first], studentIds[s]);
+            if (groupsPerBranch > 1 && random.nextInt(10) < 3) {
+                int second = (first + 1 + random.nextInt(groupsPerBranch - 1)) % groupsPerBranch;
+                members.get(second).add(s);
+                membershipWriter.add(groupIds[second], studentIds[s]);
+            }
+        }
+        membershipWriter.flush();
+
+        // Monthly tuition: most pay in full, some pay half, some skip the month
+        BatchWriter paymentWriter = new IdBatchWriter("payments_seq",
+                "INSERT INTO payments (id, student_id, group_id, amount, description, category, status, branch_id, " +
+                        "payment_year, payment_month, due_date, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            for (int g = 0; g < groupsPerBranch; g++) {
+                for (int s : members.get(g)) {
+                    int roll = random.nextInt(100);
+                    if (roll >= 90) {
+                        continue;
+                    }
+                    BigDecimal amount = roll < 80 ? groupPrices[g] : groupPrices[g].divide(BigDecimal.valueOf(2));
+                    LocalDate dueDate = month.atDay(paymentDays[s]);
+                    LocalDateTime paidAt = dueDate.plusDays(random.nextInt(5)).atTime(9 + random.nextInt(10), random.nextInt(60));
+                    paymentWriter.add(studentIds[s], groupIds[g], amount, null,
+                            pick(random, PaymentCategory.values()).name(), PaymentStatus.COMPLETED.name(), branchId,
+                            month.getYear(), month.getMonthValue(), Date.valueOf(dueDate), ts(paidAt));
+                }
+            }
+        }
+        paymentWriter.flush();
+
+        // Attendance for the most recent months, on each group's lesson days up to today
+        BatchWriter attendanceWriter = new IdBatchWriter("attendances_seq",
+                "INSERT INTO attendances (id, student_id, group_id, attendance_date, status, note, branch_id, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+        LocalDate attendanceFrom = lastMonth.minusMonths(Math.max(attendanceMonths, 1) - 1L).atDay(1);
+        for (LocalDate day = attendanceFrom; !day.isAfter(today); day = day.plusDays(1)) {
+            for (int g = 0; g < groupsPerBranch; g++) {
+                if (!groupDays[g].contains(day.getDayOfWeek())) {
+                    continue;
+                }
+                for (int s : members.get(g)) {
+                    AttendanceStatus status = random.nextInt(100) < 88 ? AttendanceStatus.PRESENT : AttendanceStatus.ABSENT;
+                    attendanceWriter.add(studentIds[s], groupIds[g], Date.valueOf(day), status.name(), null,
+                            branchId, ts(day.atTime(18, 0)));
+                }
+            }
+        }
+        attendanceWriter.flush();
+
+        BatchWriter expenseWriter = new IdBatchWriter("expenses_seq",
+                "INSERT INTO expenses (id, description, amount, category, branch_id, created_at) VALUES (?, ?, ?, ?, ?, ?)");
+        BatchWriter saleWriter = new IdBatchWriter("product_sales_seq",
+                "INSERT INTO product_sales (id, product_name, description, quantity, unit_price, total_amount, category, " +
+                        "branch_id, student_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        BatchWriter salaryWriter = new IdBatchWriter("teacher_salary_payments_seq",
+                "INSERT INTO teacher_salary_payments (id, teacher_id, year, month, amount, description, branch_id, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            for (int e = 0; e < expensesPerMonth; e++) {
+                ExpenseCategory category = pick(random, ExpenseCategory.values());
+                expenseWriter.add(category.name() + " " + month, BigDecimal.valueOf(50_000L + random.nextInt(2_000_000)),
+                        category.name(), branchId, ts(randomMoment(random, month)));
+            }
+            for (int p = 0; p < productSalesPerMonth; p++) {
+                ProductCategory category = pick(random, ProductCategory.values());
+                int quantity = 1 + random.nextInt(3);
+                BigDecimal unitPrice = BigDecimal.valueOf(5_000L * (1 + random.nextInt(30)));
+                Long studentId = random.nextInt(10) < 8 ? studentIds[random.nextInt(studentsPerBranch)] : null;
+                saleWriter.add(category.name() + " item", null, quantity, unitPrice,
+                        unitPrice.multiply(BigDecimal.valueOf(quantity)), category.name(), branchId, studentId,
+                        ts(randomMoment(random, month)));
+            }
+            // Teachers are paid in full at the start of the next month
+            LocalDateTime paidAt = month.plusMonths(1).atDay(3).atTime(12, 0);
+            for (int t = 0; t < teachersPerBranch; t++) {
+                salaryWriter.add(teacherIds[t], month.getYear(), month.getMonthValue(),
+                        BigDecimal.valueOf(2_000_000L + 100_000L * random.nextInt(30)), "Salary " + month,
+                        branchId, ts(paidAt));
+            }
+        }
+        expenseWriter.flush();
+        saleWriter.flush();
+        salaryWriter.flush();
+
+        long rows = branchWriter.getRows() + teacherWriter.getRows() + studentWriter.getRows()
+                + groupWriter.getRows() + membershipWriter.getRows() + paymentWriter.getRows()
+                + attendanceWriter.getRows() + expenseWriter.getRows() + saleWriter.getRows() + salaryWriter.getRows();
+        log.info("Branch {} ({}): {} payments, {} attendance records, {} rows in total",
+                index + 1, branchId, paymentWriter.getRows(), attendanceWriter.getRows(), rows);
+        return rows;
+    }
+
+    /**
+     * Buffers rows and writes them with one JDBC batch per {@code batchSize} rows, each batch in
+     * its own transaction.
+     */
+    private class BatchWriter {
+
+        private final String sql;
+        private final List<Object[]> buffer = new ArrayList<>();
+        private long rows;
+
+        BatchWriter(String sql) {
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            buffer.add(row);
+            if (buffer.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, buffer));
+            rows += buffer.size();
+            buffer.clear();
+        }
+
+        long getRows() {
+            return rows;
+        }
+    }
+
+    /**
+     * Batch writer for tables whose row count isn't known up front; ids are reserved a batch
+     * at a time and prepended to each row.
+     */
+    private class IdBatchWriter extends BatchWriter {
+
+        private final String sequence;
+        private long[] ids = new long[0];
+        private int used;
+
+        IdBatchWriter(String sequence, String sql) {
+            super(sql);
+            this.sequence = sequence;
+        }
+
+        @Override
+        void add(Object... row) {
+            if (used == ids.length) {
+                ids = sequenceIds.reserve(sequence, batchSize);
+                used = 0;
+            }
+            Object[] withId = new Object[row.length + 1];
+            withId[0] = ids[used++];
+            System.arraycopy(row, 0, withId, 1, row.length);
+            super.add(withId);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<DayOfWeek>[] newDaySets(int size) {
+        Set<DayOfWeek>[] sets = new Set[size];
+        for (int i = 0; i < size; i++) {
+            sets[i] = EnumSet.noneOf(DayOfWeek.class);
+        }
+        return sets;
+    }
+
+    private static LocalDateTime randomMoment(SplittableRandom random, YearMonth month) {
+        return month.atDay(1 + random.nextInt(month.lengthOfMonth())).atTime(8 + random.nextInt(12), random.nextInt(60));
+    }
+
+    private static String phone(SplittableRandom random) {
+        return String.format("+99890%07d", random.nextInt(10_000_000));
+    }
+
+    private static <T> T pick(SplittableRandom random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static Timestamp ts(LocalDateTime dateTime) {
+        return Timestamp.valueOf(dateTime);
+    }
+}
@@ -0,0 +1,33 @@
+package com.ogabek.istudy.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ogabek.istudy.monitoring.TimedJackson2HttpMessageConverter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final DatabaseBulkhead databaseBulkhead;
+
+    // Takes the place of Boot's default Jackson converter, same ObjectMapper, plus serialization timing
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJackson2HttpMessageConverter(objectMapper);
+    }
+
+    // Diagnostics endpoints don't touch the database and must stay reachable when the pool is saturated.
+    // Login is async and already bounded by the login executor; a permit held while it queues there
+    // would let a burst of logins starve every other endpoint.
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(databaseBulkhead)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/admin/diagnostics/**", "/api/auth/login");
+    }
+}
@@ -4,6 +4,7 @@ import com.ogabek.istudy.dto.request.LoginRequest;
 import com.ogabek.istudy.dto.request.RefreshTokenRequest;
 import com.ogabek.istudy.dto.response.JwtResponse;
 import com.ogabek.istudy.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -21,9 +23,10 @@ public class AuthController {
     private final UserService userService;
 
     @PostMapping("/login")
-    public ResponseEntity<JwtResponse> login(@Valid @RequestBody LoginRequest request) {
-        JwtResponse response = userService.login(request);
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<JwtResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                                HttpServletRequest httpRequest) {
+        return userService.login(request, httpRequest.getRemoteAddr())
+                .thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/refresh")
@@ -33,8 +36,12 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(@RequestParam Long userId) {
-        userService.logout(userId);
+    public ResponseEntity<?> logout(@RequestParam Long userId,
+                                    @RequestHeader(value = "Authorization", required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        userService.logout(userId, accessToken);
         Map<String, String> response = new HashMap<>();
         response.put("message", "Logout successful");
         return ResponseEntity.ok(response);
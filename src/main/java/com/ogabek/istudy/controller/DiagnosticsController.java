@@ -0,0 +1,59 @@
+package com.ogabek.istudy.controller;
+
+import com.ogabek.istudy.dto.response.SqlDiagnosticsDto;
+import com.ogabek.istudy.monitoring.JfrRecordingService;
+import com.ogabek.istudy.monitoring.SqlDiagnostics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/diagnostics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+@PreAuthorize("hasRole('SUPER_ADMIN')")
+public class DiagnosticsController {
+
+    private final SqlDiagnostics sqlDiagnostics;
+    private final JfrRecordingService jfrRecordingService;
+
+    // Most frequent, slowest and most expensive SQL statements since startup or the last reset
+    @GetMapping("/sql")
+    public ResponseEntity<SqlDiagnosticsDto> getSqlDiagnostics(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(sqlDiagnostics.snapshot(Math.max(1, Math.min(limit, 200))));
+    }
+
+    @DeleteMapping("/sql")
+    public ResponseEntity<Void> resetSqlDiagnostics() {
+        sqlDiagnostics.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    // Bounded JFR recording including the com.ogabek.istudy service events
+    @PostMapping("/jfr/start")
+    public ResponseEntity<Map<String, Object>> startJfrRecording(@RequestParam(defaultValue = "60") long durationSeconds) {
+        return ResponseEntity.ok(jfrRecordingService.start(durationSeconds));
+    }
+
+    @GetMapping("/jfr/status")
+    public ResponseEntity<Map<String, Object>> getJfrStatus() {
+        return ResponseEntity.ok(jfrRecordingService.status());
+    }
+
+    @PostMapping("/jfr/stop")
+    public ResponseEntity<Resource> stopJfrRecording() {
+        Path file = jfrRecordingService.stop();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .body(new FileSystemResource(file));
+    }
+}
@@ -0,0 +1,170 @@
+package com.ogabek.istudy.controller;
+
+import com.ogabek.istudy.security.BranchAccessControl;
+import com.ogabek.istudy.service.ExportService;
+import com.ogabek.istudy.service.WorkbookService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+// Streaming CSV / NDJSON exports; ?gzip=true compresses on the fly into a .gz download.
+// Excel workbooks are generated in the background: poll until the response is 200 instead of 202.
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ExportController {
+
+    private final ExportService exportService;
+    private final WorkbookService workbookService;
+    private final BranchAccessControl branchAccessControl;
+
+    @GetMapping("/payments")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        if (!branchAccessControl.hasAccessToBranch(branchId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        validateRange(startDate, endDate);
+        ExportService.Format exportFormat = parseFormat(format);
+        return stream("payments-" + branchId + "-" + startDate + "-" + endDate, exportFormat, gzip,
+                out -> exportService.exportPayments(branchId, startDate, endDate, exportFormat, out));
+    }
+
+    @GetMapping("/attendance")
+    public ResponseEntity<StreamingResponseBody> exportAttendance(
+            @RequestParam Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        if (!branchAccessControl.hasAccessToBranch(branchId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        validateRange(startDate, endDate);
+        ExportService.Format exportFormat = parseFormat(format);
+        return stream("attendance-" + branchId + "-" + startDate + "-" + endDate, exportFormat, gzip,
+                out -> exportService.exportAttendance(branchId, startDate, endDate, exportFormat, out));
+    }
+
+    @GetMapping("/students")
+    public ResponseEntity<StreamingResponseBody> exportStudents(
+            @RequestParam Long branchId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        if (!branchAccessControl.hasAccessToBranch(branchId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        ExportService.Format exportFormat = parseFormat(format);
+        return stream("students-" + branchId, exportFormat, gzip,
+                out -> exportService.exportStudents(branchId, exportFormat, out));
+    }
+
+    @GetMapping("/expenses")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(
+            @RequestParam Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        if (!branchAccessControl.hasAccessToBranch(branchId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        validateRange(startDate, endDate);
+        ExportService.Format exportFormat = parseFormat(format);
+        return stream("expenses-" + branchId + "-" + startDate + "-" + endDate, exportFormat, gzip,
+                out -> exportService.exportExpenses(branchId, startDate, endDate, exportFormat, out));
+    }
+
+    // Without branchId the workbook covers all branches (super admin only); without month, the whole year
+    @GetMapping("/workbook")
+    public ResponseEntity<?> exportWorkbook(
+            @RequestParam(required = false) Long branchId,
+            @RequestParam int year,
+            @RequestParam(required = false) Integer month) {
+
+        boolean allowed = branchId != null
+                ? branchAccessControl.hasAccessToBranch(branchId)
+                : branchAccessControl.isSuperAdmin();
+        if (!allowed) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (month != null && (month < 1 || month > 12)) {
+            throw new RuntimeException("Oy 1 dan 12 gacha bo'lishi kerak");
+        }
+
+        Path file = workbookService.getWorkbook(branchId, year, month);
+        if (file == null) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(Map.of("status", "GENERATING"));
+        }
+
+        String filename = "report-" + (branchId != null ? branchId : "all") + "-" + year
+                + (month != null ? "-" + String.format("%02d", month) : "") + ".xlsx";
+        Resource resource = new FileSystemResource(file);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(WorkbookService.CONTENT_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(resource);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String baseName, ExportService.Format format, boolean gzip,
+                                                         StreamingResponseBody body) {
+        String extension = format == ExportService.Format.CSV ? ".csv" : ".ndjson";
+        MediaType contentType = format == ExportService.Format.CSV
+                ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                : MediaType.parseMediaType("application/x-ndjson");
+
+        StreamingResponseBody response = body;
+        if (gzip) {
+            extension += ".gz";
+            contentType = MediaType.parseMediaType("application/gzip");
+            response = out -> {
+                // Sync flush, so each flushed batch of rows reaches the client compressed
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true);
+                body.writeTo(compressed);
+                compressed.finish();
+            };
+        }
+
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + baseName + extension + "\"")
+                .body(response);
+    }
+
+    private ExportService.Format parseFormat(String format) {
+        try {
+            return ExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Noto'g'ri format: " + format + " (csv yoki ndjson)");
+        }
+    }
+
+    private void validateRange(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("Tugash sanasi boshlanish sanasidan oldin bo'lishi mumkin emas");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ogabek.istudy.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Public health checks for the platform: status only, details stay behind /actuator/health.
+ */
+@RestController
+@RequestMapping("/health")
+@RequiredArgsConstructor
+public class HealthController {
+
+    private final HealthEndpoint healthEndpoint;
+
+    @GetMapping
+    public ResponseEntity<Map<String, String>> health() {
+        return toResponse(healthEndpoint.health());
+    }
+
+    @GetMapping("/liveness")
+    public ResponseEntity<Map<String, String>> liveness() {
+        return toResponse(healthEndpoint.healthForPath("liveness"));
+    }
+
+    // Includes the database and pool saturation checks
+    @GetMapping("/readiness")
+    public ResponseEntity<Map<String, String>> readiness() {
+        return toResponse(healthEndpoint.healthForPath("readiness"));
+    }
+
+    private ResponseEntity<Map<String, String>> toResponse(HealthComponent health) {
+        if (health == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        Status status = health.getStatus();
+        HttpStatus httpStatus = Status.UP.equals(status) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(httpStatus).body(Map.of("status", status.getCode()));
+    }
+}
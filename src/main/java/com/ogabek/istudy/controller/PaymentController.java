@@ -1,10 +1,13 @@
 package com.ogabek.istudy.controller;
 
+import com.ogabek.istudy.dto.request.BulkPaymentRequest;
 import com.ogabek.istudy.dto.request.CreatePaymentRequest;
 import com.ogabek.istudy.dto.request.UpdatePaymentRequest;
+import com.ogabek.istudy.dto.response.BulkPaymentResponse;
 import com.ogabek.istudy.dto.response.PaymentDto;
 import com.ogabek.istudy.dto.response.UnpaidStudentDto;
 import com.ogabek.istudy.security.BranchAccessControl;
+import com.ogabek.istudy.service.IdempotencyService;
 import com.ogabek.istudy.service.PaymentService;
 import com.ogabek.istudy.service.StudentService;
 import jakarta.validation.Valid;
@@ -26,6 +29,7 @@ public class PaymentController {
     private final PaymentService paymentService;
     private final StudentService studentService;
     private final BranchAccessControl branchAccessControl;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     public ResponseEntity<List<PaymentDto>> getPaymentsByBranch(@RequestParam Long branchId) {
@@ -137,15 +141,31 @@ public class PaymentController {
         return ResponseEntity.ok(payment);
     }
 
+    // A retry with the same Idempotency-Key returns the original payment instead of creating another one
     @PostMapping
-    public ResponseEntity<PaymentDto> createPayment(@Valid @RequestBody CreatePaymentRequest request) {
+    public ResponseEntity<PaymentDto> createPayment(
+            @Valid @RequestBody CreatePaymentRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         if (!branchAccessControl.hasAccessToBranch(request.getBranchId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        PaymentDto payment = paymentService.createPayment(request);
+        PaymentDto payment = idempotencyService.execute("payment", idempotencyKey, request, PaymentDto.class,
+                () -> paymentService.createPayment(request));
         return ResponseEntity.ok(payment);
     }
 
+    // Per-row results: rows that fail validation or membership are reported, the rest are saved together
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkPaymentResponse> createPayments(
+            @Valid @RequestBody BulkPaymentRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
+        if (!branchAccessControl.hasAccessToBranch(request.getBranchId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(idempotencyService.execute("payment-bulk", idempotencyKey, request,
+                BulkPaymentResponse.class, () -> paymentService.createPayments(request)));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<PaymentDto> updatePaymentAmount(
             @PathVariable Long id,
@@ -3,6 +3,7 @@ package com.ogabek.istudy.controller;
 import com.ogabek.istudy.dto.request.CreateProductSaleRequest;
 import com.ogabek.istudy.dto.response.ProductSaleDto;
 import com.ogabek.istudy.security.BranchAccessControl;
+import com.ogabek.istudy.service.IdempotencyService;
 import com.ogabek.istudy.service.ProductSaleService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +24,7 @@ public class ProductSaleController {
 
     private final ProductSaleService productSaleService;
     private final BranchAccessControl branchAccessControl;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     public ResponseEntity<List<ProductSaleDto>> getAllSalesByBranch(@RequestParam Long branchId) {
@@ -105,12 +107,16 @@ public class ProductSaleController {
     }
 
     @PostMapping
-    public ResponseEntity<ProductSaleDto> createSale(@Valid @RequestBody CreateProductSaleRequest request) {
+    public ResponseEntity<ProductSaleDto> createSale(
+            @Valid @RequestBody CreateProductSaleRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey) {
         if (!branchAccessControl.hasAccessToBranch(request.getBranchId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        ProductSaleDto sale = productSaleService.createSale(request);
+        // A retry with the same Idempotency-Key returns the original sale instead of recording it twice
+        ProductSaleDto sale = idempotencyService.execute("product-sale", idempotencyKey, request, ProductSaleDto.class,
+                () -> productSaleService.createSale(request));
         return ResponseEntity.ok(sale);
     }
 
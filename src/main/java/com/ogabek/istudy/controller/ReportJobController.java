@@ -0,0 +1,62 @@
+package com.ogabek.istudy.controller;
+
+import com.ogabek.istudy.dto.request.CreateReportJobRequest;
+import com.ogabek.istudy.dto.response.ReportJobDto;
+import com.ogabek.istudy.security.BranchAccessControl;
+import com.ogabek.istudy.service.ReportJobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Long-running reports: submit, poll the job until it has finished, then fetch the result
+@RestController
+@RequestMapping("/api/report-jobs")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+    private final BranchAccessControl branchAccessControl;
+
+    @PostMapping
+    public ResponseEntity<ReportJobDto> submitReportJob(@Valid @RequestBody CreateReportJobRequest request) {
+        if (!branchAccessControl.hasAccessToBranch(request.getBranchId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportJobService.submit(request));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ReportJobDto> getReportJob(@PathVariable String id) {
+        ReportJobDto job = reportJobService.getJob(id);
+        if (!branchAccessControl.hasAccessToBranch(job.getBranchId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    // 409 with the job status while the job is queued or running, or if it did not succeed
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Object> getReportJobResult(@PathVariable String id) {
+        ReportJobDto job = reportJobService.getJob(id);
+        if (!branchAccessControl.hasAccessToBranch(job.getBranchId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Object result = reportJobService.getResult(id);
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<ReportJobDto> cancelReportJob(@PathVariable String id) {
+        ReportJobDto job = reportJobService.getJob(id);
+        if (!branchAccessControl.hasAccessToBranch(job.getBranchId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(reportJobService.cancel(id));
+    }
+}
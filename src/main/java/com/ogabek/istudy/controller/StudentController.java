@@ -2,14 +2,19 @@ package com.ogabek.istudy.controller;
 
 import com.ogabek.istudy.dto.request.CreateStudentRequest;
 import com.ogabek.istudy.dto.response.StudentDto;
+import com.ogabek.istudy.dto.response.StudentImportResponse;
 import com.ogabek.istudy.dto.response.UnpaidStudentDto;
 import com.ogabek.istudy.security.BranchAccessControl;
+import com.ogabek.istudy.service.StudentImportService;
 import com.ogabek.istudy.service.StudentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -19,6 +24,7 @@ import java.util.List;
 public class StudentController {
 
     private final StudentService studentService;
+    private final StudentImportService studentImportService;
     private final BranchAccessControl branchAccessControl;
 
     @GetMapping
@@ -94,6 +100,25 @@ public class StudentController {
         return ResponseEntity.ok(student);
     }
 
+    // Bulk import: CSV with a header row, or a JSON array of student objects. Invalid rows are reported, not imported.
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<StudentImportResponse> importStudentsCsv(@RequestParam Long branchId, InputStream body)
+            throws IOException {
+        if (!branchAccessControl.hasAccessToBranch(branchId)) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(studentImportService.importCsv(branchId, body));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StudentImportResponse> importStudentsJson(@RequestParam Long branchId, InputStream body)
+            throws IOException {
+        if (!branchAccessControl.hasAccessToBranch(branchId)) {
+            return ResponseEntity.status(403).build();
+        }
+        return ResponseEntity.ok(studentImportService.importJson(branchId, body));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<StudentDto> updateStudent(@PathVariable Long id, @Valid @RequestBody CreateStudentRequest request) {
         if (!branchAccessControl.hasAccessToBranch(request.getBranchId())) {
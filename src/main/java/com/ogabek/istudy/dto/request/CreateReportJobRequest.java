@@ -0,0 +1,24 @@
+package com.ogabek.istudy.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+public class CreateReportJobRequest {
+    @NotNull(message = "Hisobot turi majburiy")
+    @Pattern(regexp = "^(ALL_TIME_EXPENSE|RANGE_EXPENSE|RANGE_PAYMENT|FINANCIAL_SUMMARY_RANGE)$",
+            message = "Hisobot turi noto'g'ri")
+    private String type;
+
+    @NotNull(message = "Filial majburiy")
+    private Long branchId;
+
+    // Required by every type except ALL_TIME_EXPENSE
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
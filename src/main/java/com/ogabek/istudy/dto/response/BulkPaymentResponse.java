@@ -0,0 +1,38 @@
+package com.ogabek.istudy.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPaymentResponse {
+    private Long branchId;
+    private int totalRows;
+    private int created;
+    private int failed;
+    private BigDecimal totalAmount;
+    private List<RowResult> results;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        // 0-based position in the request's payments list
+        private int index;
+        private Long studentId;
+        private Long groupId;
+        private boolean created;
+        private Long paymentId;
+        private LocalDate dueDate;
+        private String error;
+    }
+}
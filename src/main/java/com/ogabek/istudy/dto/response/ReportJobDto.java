@@ -0,0 +1,25 @@
+package com.ogabek.istudy.dto.response;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+public class ReportJobDto {
+    private String id;
+    private String type;
+    private Long branchId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    // QUEUED, RUNNING, SUCCEEDED, FAILED or CANCELLED
+    private String status;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+    // When the job and its result are forgotten
+    private Instant expiresAt;
+}
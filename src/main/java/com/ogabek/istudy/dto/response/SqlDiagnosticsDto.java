@@ -0,0 +1,50 @@
+package com.ogabek.istudy.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@Setter
+public class SqlDiagnosticsDto {
+    private boolean enabled;
+    private Instant since;
+    private double slowThresholdMs;
+    private int distinctStatements;
+    // Executions of statements seen after the distinct-statement limit was reached
+    private long untrackedExecutions;
+    private List<StatementSummary> mostFrequent;
+    private List<StatementSummary> slowest;
+    private List<StatementSummary> mostTotalTime;
+    private List<SlowExecution> recentSlowExecutions;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatementSummary {
+        private String sql;
+        private long executions;
+        private double totalMs;
+        private double avgMs;
+        private double maxMs;
+        private String caller;
+        private String endpoint;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SlowExecution {
+        private String sql;
+        private double durationMs;
+        private String caller;
+        private String endpoint;
+        private Instant at;
+    }
+}
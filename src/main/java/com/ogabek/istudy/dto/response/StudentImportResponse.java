@@ -0,0 +1,30 @@
+package com.ogabek.istudy.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class StudentImportResponse {
+    private int totalRows;
+    private int imported;
+    private int failed;
+    private List<RowError> errors = new ArrayList<>();
+    // Only the first errors are listed; failed still counts all of them
+    private boolean errorsTruncated;
+    // A chunk failed to save: imported counts the rows saved before it, later rows were not read
+    private boolean aborted;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    public static class RowError {
+        // 1-based data row, not counting the CSV header
+        private int row;
+        private String message;
+    }
+}
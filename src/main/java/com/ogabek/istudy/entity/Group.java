@@ -17,7 +17,8 @@ import java.util.Set;
 @AllArgsConstructor
 public class Group {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "groups_seq")
+    @SequenceGenerator(name = "groups_seq", sequenceName = "groups_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
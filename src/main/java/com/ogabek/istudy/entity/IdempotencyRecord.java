@@ -0,0 +1,37 @@
+package com.ogabek.istudy.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Response of a create request sent with an Idempotency-Key, replayed when the request is retried
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    // scope:username:client key
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String key;
+
+    // SHA-256 of the request body, so a key reused for a different request is rejected
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    // JSON of the original response
+    @Column(columnDefinition = "TEXT")
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -16,7 +16,8 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class ProductSale {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_sales_seq")
+    @SequenceGenerator(name = "product_sales_seq", sequenceName = "product_sales_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,24 @@
+package com.ogabek.istudy.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.ogabek.istudy.BulkAttendance")
+@Label("Bulk Attendance")
+@Description("Attendance for a whole group saved by AttendanceService")
+@Category({"iStudy", "Service"})
+@StackTrace(false)
+public class BulkAttendanceEvent extends jdk.jfr.Event {
+
+    @Label("Branch Id")
+    public long branchId;
+
+    @Label("Group Id")
+    public long groupId;
+
+    @Label("Students")
+    public int students;
+}
@@ -0,0 +1,44 @@
+package com.ogabek.istudy.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Adds the time and count of JDBC statements executed by Hibernate to the current request's
+ * {@link RequestTimings} and to the {@link SqlDiagnostics} statement log. Hibernate creates one
+ * instance per session ({@code hibernate.session.events.auto}), so the start timestamps need
+ * no synchronization.
+ */
+public class JdbcTimingSessionListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private static void record(long start) {
+        long nanos = System.nanoTime() - start;
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.recordStatement(nanos);
+        }
+        SqlDiagnostics.recordExecution(SqlCaptureInspector.lastStatement(), nanos, timings);
+    }
+}
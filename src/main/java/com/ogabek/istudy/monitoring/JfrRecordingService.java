@@ -0,0 +1,126 @@
+package com.ogabek.istudy.monitoring;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs at most one on-demand JFR recording at a time. Recordings are bounded by
+ * {@code app.diagnostics.jfr.max-duration-seconds} and {@code app.diagnostics.jfr.max-size-mb} so a
+ * forgotten recording cannot fill the disk; the file of the previous recording is deleted when the
+ * next one starts.
+ */
+@Slf4j
+@Component
+public class JfrRecordingService {
+
+    private static final String RECORDING_NAME = "istudy-diagnostics";
+
+    private final String settings;
+    private final long maxDurationSeconds;
+    private final long maxSizeBytes;
+
+    private Recording recording;
+    private Path file;
+
+    public JfrRecordingService(@Value("${app.diagnostics.jfr.settings:profile}") String settings,
+                               @Value("${app.diagnostics.jfr.max-duration-seconds:300}") long maxDurationSeconds,
+                               @Value("${app.diagnostics.jfr.max-size-mb:100}") long maxSizeMb) {
+        this.settings = settings;
+        this.maxDurationSeconds = maxDurationSeconds;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    public synchronized Map<String, Object> start(long durationSeconds) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new RuntimeException("JFR recording is already running");
+        }
+        discard();
+
+        long seconds = Math.max(1, Math.min(durationSeconds, maxDurationSeconds));
+        try {
+            file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+            recording = new Recording(Configuration.getConfiguration(settings));
+            recording.setName(RECORDING_NAME);
+            recording.setToDisk(true);
+            recording.setMaxSize(maxSizeBytes);
+            recording.setDuration(Duration.ofSeconds(seconds));
+            recording.setDestination(file);
+            recording.start();
+        } catch (IOException | ParseException e) {
+            discard();
+            throw new RuntimeException("JFR recording could not be started: " + e.getMessage(), e);
+        }
+
+        log.info("Started JFR recording for {}s (settings={}, file={})", seconds, settings, file);
+        return status();
+    }
+
+    /**
+     * Stops the recording if it is still running and returns the dumped file. A recording that
+     * already reached its duration has been written to the same file by JFR itself.
+     */
+    public synchronized Path stop() {
+        if (recording == null) {
+            throw new RuntimeException("No JFR recording has been started");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        if (recording.getState() != RecordingState.CLOSED) {
+            recording.close();
+        }
+        log.info("Stopped JFR recording ({} bytes)", fileSize());
+        return file;
+    }
+
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        if (recording == null) {
+            status.put("state", "NONE");
+            return status;
+        }
+        status.put("state", recording.getState().name());
+        status.put("startTime", recording.getStartTime());
+        status.put("duration", recording.getDuration());
+        status.put("maxSizeBytes", maxSizeBytes);
+        status.put("fileSizeBytes", fileSize());
+        return status;
+    }
+
+    @PreDestroy
+    public synchronized void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete JFR file {}: {}", file, e.getMessage());
+            }
+            file = null;
+        }
+    }
+
+    private long fileSize() {
+        try {
+            return file != null && Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ogabek.istudy.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.ogabek.istudy.Login")
+@Label("Login")
+@Description("Credential verification in UserService.login")
+@Category({"iStudy", "Service"})
+@StackTrace(false)
+public class LoginEvent extends jdk.jfr.Event {
+
+    @Label("Success")
+    public boolean success;
+}
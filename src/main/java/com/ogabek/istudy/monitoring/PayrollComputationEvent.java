@@ -0,0 +1,27 @@
+package com.ogabek.istudy.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.ogabek.istudy.PayrollComputation")
+@Label("Payroll Computation")
+@Description("Salary calculation for all teachers of a branch in TeacherSalaryService")
+@Category({"iStudy", "Service"})
+@StackTrace(false)
+public class PayrollComputationEvent extends jdk.jfr.Event {
+
+    @Label("Branch Id")
+    public long branchId;
+
+    @Label("Year")
+    public int year;
+
+    @Label("Month")
+    public int month;
+
+    @Label("Teachers")
+    public int teachers;
+}
@@ -0,0 +1,21 @@
+package com.ogabek.istudy.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.ogabek.istudy.ReportComputation")
+@Label("Report Computation")
+@Description("One financial, payment or expense report computed by ReportService")
+@Category({"iStudy", "Service"})
+@StackTrace(false)
+public class ReportComputationEvent extends jdk.jfr.Event {
+
+    @Label("Branch Id")
+    public long branchId;
+
+    @Label("Report")
+    public String report;
+}
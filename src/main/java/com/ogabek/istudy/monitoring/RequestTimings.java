@@ -0,0 +1,87 @@
+package com.ogabek.istudy.monitoring;
+
+/**
+ * Per-request cost counters: JDBC time and statement count and JSON serialization time. Bound to
+ * the request thread by {@link ServerTimingFilter}; work done on other threads (async login,
+ * scheduled jobs) is not attributed to any request.
+ *
+ * <p>Allocated bytes are not tracked: requests run on virtual threads, for which
+ * {@code ThreadMXBean.getCurrentThreadAllocatedBytes()} returns -1. The on-demand recording of
+ * {@link JfrRecordingService} samples allocations ({@code jdk.ObjectAllocationSample}) instead.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private final String endpoint;
+    private final long startNanos = System.nanoTime();
+    private long jdbcNanos;
+    private int statements;
+    private long serializationNanos;
+
+    private RequestTimings(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    static RequestTimings start(String endpoint) {
+        RequestTimings timings = new RequestTimings(endpoint);
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Timings of the request running on this thread, or null outside a request.
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * HTTP method and path of the request, e.g. {@code GET /api/students}.
+     */
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public void recordStatement(long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+    }
+
+    public void recordSerialization(long nanos) {
+        serializationNanos += nanos;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public long jdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long serializationNanos() {
+        return serializationNanos;
+    }
+
+    /**
+     * Value for the {@code Server-Timing} response header. It goes out before the body is
+     * serialized, so JSON time is only in the slow request log.
+     */
+    public String toServerTimingHeader() {
+        return "app;dur=" + millis(elapsedNanos())
+                + ", db;dur=" + millis(jdbcNanos) + ";desc=\"" + statements + " statements\"";
+    }
+
+    static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,125 @@
+package com.ogabek.istudy.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports where a request spent its time in a {@code Server-Timing} header (visible in the
+ * browser's network tab) and logs a structured line for requests slower than
+ * {@code app.server-timing.log-threshold-ms}.
+ *
+ * <p>The header has to go out before the body, so it is added when the response is first
+ * written to. JSON serialization, measured by {@link TimedJackson2HttpMessageConverter} while
+ * the body streams out, is therefore only in the log line.
+ */
+@Component
+@Slf4j
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+
+    private final boolean headerEnabled;
+    private final long logThresholdNanos;
+
+    public ServerTimingFilter(@Value("${app.server-timing.header-enabled:true}") boolean headerEnabled,
+                              @Value("${app.server-timing.log-threshold-ms:1000}") long logThresholdMs) {
+        this.headerEnabled = headerEnabled;
+        this.logThresholdNanos = TimeUnit.MILLISECONDS.toNanos(logThresholdMs);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.start(request.getMethod() + " " + request.getRequestURI());
+        HttpServletResponse timedResponse = headerEnabled ? new TimingHeaderResponse(response, timings) : response;
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            if (timedResponse instanceof TimingHeaderResponse wrapper) {
+                wrapper.addTimingHeader();
+            }
+            if (timings.elapsedNanos() >= logThresholdNanos) {
+                logSlowRequest(request, response, timings);
+            }
+            RequestTimings.clear();
+        }
+    }
+
+    private void logSlowRequest(HttpServletRequest request, HttpServletResponse response, RequestTimings timings) {
+        log.warn("slow_request method={} uri={} status={} total_ms={} db_ms={} statements={} json_ms={}",
+                request.getMethod(), request.getRequestURI(), response.getStatus(),
+                RequestTimings.millis(timings.elapsedNanos()), RequestTimings.millis(timings.jdbcNanos()),
+                timings.statements(), RequestTimings.millis(timings.serializationNanos()));
+    }
+
+    /**
+     * Adds the header right before the response commits: on first access to the body, on an
+     * explicit flush, or at the end of the chain if nothing was written.
+     */
+    private static class TimingHeaderResponse extends HttpServletResponseWrapper {
+
+        private final RequestTimings timings;
+        private boolean headerAdded;
+
+        TimingHeaderResponse(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        void addTimingHeader() {
+            if (!headerAdded && !isCommitted()) {
+                setHeader(HEADER, timings.toServerTimingHeader());
+                setHeader("Timing-Allow-Origin", "*");
+            }
+            headerAdded = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addTimingHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addTimingHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addTimingHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addTimingHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addTimingHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addTimingHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
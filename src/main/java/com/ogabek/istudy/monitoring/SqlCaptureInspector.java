@@ -0,0 +1,22 @@
+package com.ogabek.istudy.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Remembers the SQL Hibernate is about to prepare on this thread, so the execution time measured
+ * by {@link JdbcTimingSessionListener} can be attributed to it. The SQL is passed through unchanged.
+ */
+public class SqlCaptureInspector implements StatementInspector {
+
+    private static final ThreadLocal<String> LAST_STATEMENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        LAST_STATEMENT.set(sql);
+        return sql;
+    }
+
+    static String lastStatement() {
+        return LAST_STATEMENT.get();
+    }
+}
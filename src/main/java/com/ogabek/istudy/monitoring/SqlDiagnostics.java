@@ -0,0 +1,249 @@
+package com.ogabek.istudy.monitoring;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ogabek.istudy.dto.response.SqlDiagnosticsDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Always-on SQL statistics. Statements are normalized (literals and IN lists collapsed) and
+ * aggregated per shape, which gives the most frequent and slowest statements; executions above
+ * {@code app.diagnostics.sql.slow-threshold-ms} also go into a fixed-size ring buffer.
+ *
+ * <p>The hot path is a cache lookup and a few atomic adds. The calling service method is found by
+ * walking the stack, which only happens for slow executions and the first time a shape is seen.
+ */
+@Component
+public class SqlDiagnostics {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_SQL_LENGTH = 2000;
+    private static final String APP_PACKAGE = "com.ogabek.istudy.";
+    private static final String MONITORING_PACKAGE = APP_PACKAGE + "monitoring.";
+
+    private static volatile SqlDiagnostics active;
+
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final int maxStatements;
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Cache<String, String> normalizedSql;
+    private final AtomicReferenceArray<SqlDiagnosticsDto.SlowExecution> slowExecutions;
+    private final AtomicLong slowCursor = new AtomicLong();
+    private final LongAdder untracked = new LongAdder();
+    private volatile Instant since = Instant.now();
+
+    public SqlDiagnostics(@Value("${app.diagnostics.sql.enabled:true}") boolean enabled,
+                          @Value("${app.diagnostics.sql.slow-threshold-ms:200}") long slowThresholdMs,
+                          @Value("${app.diagnostics.sql.slow-buffer-size:100}") int slowBufferSize,
+                          @Value("${app.diagnostics.sql.max-statements:1000}") int maxStatements) {
+        this.enabled = enabled;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.maxStatements = maxStatements;
+        this.slowExecutions = new AtomicReferenceArray<>(slowBufferSize);
+        this.normalizedSql = Caffeine.newBuilder()
+                .maximumSize(maxStatements * 4L)
+                .build();
+    }
+
+    @PostConstruct
+    void register() {
+        if (enabled) {
+            active = this;
+        }
+    }
+
+    @PreDestroy
+    void unregister() {
+        active = null;
+    }
+
+    /**
+     * Called for every statement Hibernate executes, on the executing thread.
+     */
+    static void recordExecution(String sql, long nanos, RequestTimings timings) {
+        SqlDiagnostics diagnostics = active;
+        if (diagnostics != null && sql != null) {
+            diagnostics.record(sql, nanos, timings != null ? timings.endpoint() : null);
+        }
+    }
+
+    void record(String sql, long nanos, String endpoint) {
+        String normalized = normalizedSql.get(sql, SqlDiagnostics::normalize);
+        boolean slow = nanos >= slowThresholdNanos;
+
+        StatementStats stats = statements.get(normalized);
+        if (stats == null) {
+            if (statements.size() >= maxStatements) {
+                untracked.increment();
+            } else {
+                stats = statements.computeIfAbsent(normalized, key -> new StatementStats(key, callerMethod(), endpoint));
+            }
+        }
+        if (stats != null) {
+            stats.record(nanos);
+        }
+
+        if (slow) {
+            String caller = callerMethod();
+            if (stats != null) {
+                stats.lastSlowCaller = caller;
+                stats.lastSlowEndpoint = endpoint;
+            }
+            int slot = (int) (slowCursor.getAndIncrement() % slowExecutions.length());
+            slowExecutions.set(slot, new SqlDiagnosticsDto.SlowExecution(
+                    normalized, millis(nanos), caller, endpoint, Instant.now()));
+        }
+    }
+
+    public SqlDiagnosticsDto snapshot(int limit) {
+        List<StatementStats> all = new ArrayList<>(statements.values());
+
+        List<SqlDiagnosticsDto.StatementSummary> mostFrequent = all.stream()
+                .sorted(Comparator.comparingLong(StatementStats::count).reversed())
+                .limit(limit)
+                .map(StatementStats::toSummary)
+                .toList();
+        List<SqlDiagnosticsDto.StatementSummary> slowest = all.stream()
+                .sorted(Comparator.comparingLong(StatementStats::maxNanos).reversed())
+                .limit(limit)
+                .map(StatementStats::toSummary)
+                .toList();
+        List<SqlDiagnosticsDto.StatementSummary> mostTotalTime = all.stream()
+                .sorted(Comparator.comparingLong(StatementStats::totalNanos).reversed())
+                .limit(limit)
+                .map(StatementStats::toSummary)
+                .toList();
+
+        List<SqlDiagnosticsDto.SlowExecution> recentSlow = new ArrayList<>();
+        for (int i = 0; i < slowExecutions.length(); i++) {
+            Optional.ofNullable(slowExecutions.get(i)).ifPresent(recentSlow::add);
+        }
+        recentSlow.sort(Comparator.comparing(SqlDiagnosticsDto.SlowExecution::getAt).reversed());
+
+        SqlDiagnosticsDto dto = new SqlDiagnosticsDto();
+        dto.setEnabled(enabled);
+        dto.setSince(since);
+        dto.setSlowThresholdMs(millis(slowThresholdNanos));
+        dto.setDistinctStatements(all.size());
+        dto.setUntrackedExecutions(untracked.sum());
+        dto.setMostFrequent(mostFrequent);
+        dto.setSlowest(slowest);
+        dto.setMostTotalTime(mostTotalTime);
+        dto.setRecentSlowExecutions(recentSlow);
+        return dto;
+    }
+
+    public void reset() {
+        statements.clear();
+        for (int i = 0; i < slowExecutions.length(); i++) {
+            slowExecutions.set(i, null);
+        }
+        untracked.reset();
+        since = Instant.now();
+    }
+
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?...)");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        return normalized.length() > MAX_SQL_LENGTH ? normalized.substring(0, MAX_SQL_LENGTH) + "..." : normalized;
+    }
+
+    // Nearest application frame outside this package, preferring the service layer
+    private static String callerMethod() {
+        return StackWalker.getInstance().walk(frames -> {
+            String fallback = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String className = frame.getClassName();
+                if (!className.startsWith(APP_PACKAGE) || className.startsWith(MONITORING_PACKAGE)
+                        || className.contains("$$")) {
+                    continue;
+                }
+                String method = className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+                if (className.startsWith(APP_PACKAGE + "service.")) {
+                    return method;
+                }
+                if (fallback == null) {
+                    fallback = method;
+                }
+            }
+            return fallback;
+        });
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static final class StatementStats {
+
+        private final String sql;
+        private final String firstCaller;
+        private final String firstEndpoint;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile String lastSlowCaller;
+        private volatile String lastSlowEndpoint;
+
+        StatementStats(String sql, String caller, String endpoint) {
+            this.sql = sql;
+            this.firstCaller = caller;
+            this.firstEndpoint = endpoint;
+        }
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            if (nanos > maxNanos.get()) {
+                maxNanos.accumulateAndGet(nanos, Math::max);
+            }
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        long maxNanos() {
+            return maxNanos.get();
+        }
+
+        SqlDiagnosticsDto.StatementSummary toSummary() {
+            long executions = count();
+            long total = totalNanos();
+            return new SqlDiagnosticsDto.StatementSummary(
+                    sql,
+                    executions,
+                    millis(total),
+                    executions == 0 ? 0 : millis(total / executions),
+                    millis(maxNanos()),
+                    lastSlowCaller != null ? lastSlowCaller : firstCaller,
+                    lastSlowEndpoint != null ? lastSlowEndpoint : firstEndpoint);
+        }
+    }
+}
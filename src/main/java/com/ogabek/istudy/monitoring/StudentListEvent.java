@@ -0,0 +1,24 @@
+package com.ogabek.istudy.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.ogabek.istudy.StudentList")
+@Label("Student List Assembly")
+@Description("A student list with payment status built by StudentService")
+@Category({"iStudy", "Service"})
+@StackTrace(false)
+public class StudentListEvent extends jdk.jfr.Event {
+
+    @Label("Branch Id")
+    public long branchId;
+
+    @Label("List")
+    public String list;
+
+    @Label("Rows")
+    public int rows;
+}
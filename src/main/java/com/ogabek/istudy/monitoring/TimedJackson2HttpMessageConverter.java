@@ -0,0 +1,103 @@
+package com.ogabek.istudy.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter that measures serialization time. The response streams straight to the
+ * client; time spent inside writes to the body is subtracted, so a slow client doesn't show up
+ * as slow serialization.
+ */
+public class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+
+        long start = System.nanoTime();
+        TimedOutputMessage timed = new TimedOutputMessage(outputMessage);
+        try {
+            super.writeInternal(object, type, timed);
+        } finally {
+            long writeNanos = timed.body != null ? timed.body.writeNanos : 0;
+            timings.recordSerialization(System.nanoTime() - start - writeNanos);
+        }
+    }
+
+    private static class TimedOutputMessage implements HttpOutputMessage {
+
+        private final HttpOutputMessage target;
+        private WriteTimingOutputStream body;
+
+        TimedOutputMessage(HttpOutputMessage target) {
+            this.target = target;
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            if (body == null) {
+                body = new WriteTimingOutputStream(target.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return target.getHeaders();
+        }
+    }
+
+    // Passes everything through and adds up the time spent in the underlying stream
+    private static class WriteTimingOutputStream extends FilterOutputStream {
+
+        private long writeNanos;
+
+        WriteTimingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            long start = System.nanoTime();
+            out.write(b);
+            writeNanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            out.write(b, off, len);
+            writeNanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            long start = System.nanoTime();
+            out.flush();
+            writeNanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The container owns the response stream; only flush it
+            flush();
+        }
+    }
+}
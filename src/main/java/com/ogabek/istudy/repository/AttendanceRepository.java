@@ -2,14 +2,18 @@ package com.ogabek.istudy.repository;
 
 import com.ogabek.istudy.entity.Attendance;
 import com.ogabek.istudy.entity.AttendanceStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
@@ -59,4 +63,17 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Long> {
     List<Attendance> findByGroupAndMonth(@Param("groupId") Long groupId,
                                         @Param("year") int year,
                                         @Param("month") int month);
+
+    // Scalar rows for streaming export; nothing enters the persistence context
+    @Query("SELECT a.id, a.attendanceDate, s.id, s.firstName, s.lastName, g.id, g.name, a.status, a.note " +
+            "FROM Attendance a JOIN a.student s JOIN a.group g " +
+            "WHERE a.branch.id = :branchId AND a.attendanceDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY a.attendanceDate, a.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Object[]> streamExportRows(@Param("branchId") Long branchId,
+                                      @Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate);
 }
\ No newline at end of file
@@ -2,14 +2,18 @@ package com.ogabek.istudy.repository;
 
 import com.ogabek.istudy.entity.Expense;
 import com.ogabek.istudy.entity.ExpenseCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
@@ -33,4 +37,15 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
     @Query("SELECT COALESCE(SUM(e.amount), 0) FROM Expense e WHERE e.branch.id = :branchId")
     BigDecimal sumAllTimeExpenses(@Param("branchId") Long branchId);
+
+    // Scalar rows for streaming export; nothing enters the persistence context
+    @Query("SELECT e.id, e.createdAt, e.category, e.amount, e.description FROM Expense e " +
+            "WHERE e.branch.id = :branchId AND e.createdAt BETWEEN :start AND :end ORDER BY e.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Object[]> streamExportRows(@Param("branchId") Long branchId,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end);
 }
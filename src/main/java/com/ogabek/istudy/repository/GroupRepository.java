@@ -6,12 +6,18 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GroupRepository extends JpaRepository<Group, Long> {
 
+    // Loads only the group row; its teacher and branch come from the second-level cache when touched
+    default Optional<Group> findActiveById(Long groupId) {
+        return findById(groupId).filter(group -> !group.isDeleted());
+    }
+
     @Query("SELECT g FROM Group g " +
             "LEFT JOIN FETCH g.teacher " +
             "LEFT JOIN FETCH g.branch " +
@@ -56,6 +62,14 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     @Query("SELECT g FROM Group g WHERE g.branch.id = :branchId AND g.deleted = false")
     List<Group> findByBranchId(@Param("branchId") Long branchId);
 
+    @Query("SELECT g.id FROM Group g WHERE g.branch.id = :branchId AND g.deleted = false")
+    List<Long> findIdsByBranchId(@Param("branchId") Long branchId);
+
+    // (groupId, studentId, student's paymentDayOfMonth) for the given students' active groups in the branch
+    @Query("SELECT g.id, s.id, s.paymentDayOfMonth FROM Group g JOIN g.students s " +
+            "WHERE g.branch.id = :branchId AND g.deleted = false AND s.id IN :studentIds")
+    List<Object[]> findMemberships(@Param("branchId") Long branchId, @Param("studentIds") Collection<Long> studentIds);
+
     @Query("SELECT g FROM Group g WHERE g.teacher.id = :teacherId AND g.deleted = false")
     List<Group> findByTeacherId(@Param("teacherId") Long teacherId);
 
@@ -2,9 +2,12 @@ package com.ogabek.istudy.repository;
 
 import com.ogabek.istudy.entity.Payment;
 import com.ogabek.istudy.entity.PaymentCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,6 +15,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
@@ -149,4 +153,18 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Modifying
     @Query("DELETE FROM Payment p WHERE p.group.id = :groupId")
     void deleteByGroupId(@Param("groupId") Long groupId);
+
+    // Scalar rows for streaming export; nothing enters the persistence context
+    @Query("SELECT p.id, p.createdAt, s.id, s.firstName, s.lastName, g.id, g.name, p.amount, p.category, " +
+            "p.status, p.paymentYear, p.paymentMonth, p.dueDate, p.description " +
+            "FROM Payment p JOIN p.student s JOIN p.group g " +
+            "WHERE p.branch.id = :branchId AND p.createdAt BETWEEN :start AND :end " +
+            "ORDER BY p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Object[]> streamExportRows(@Param("branchId") Long branchId,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end);
 }
\ No newline at end of file
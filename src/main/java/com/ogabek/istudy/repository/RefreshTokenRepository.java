@@ -5,6 +5,7 @@ import com.ogabek.istudy.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,7 +14,7 @@ import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
     Optional<RefreshToken> findByUser(User user);
 
     @Modifying
@@ -21,7 +22,19 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     @Query("DELETE FROM RefreshToken rt WHERE rt.user = :user")
     void deleteByUser(User user);
 
+    // Swaps the hash only if the caller still holds the current token, so a token can be rotated once
     @Modifying
     @Transactional
-    int deleteByExpiryDateBefore(LocalDateTime expiryDate);
+    @Query("UPDATE RefreshToken rt SET rt.tokenHash = :newHash, rt.expiryDate = :expiryDate " +
+            "WHERE rt.id = :id AND rt.tokenHash = :oldHash")
+    int rotateToken(@Param("id") Long id,
+                    @Param("oldHash") String oldHash,
+                    @Param("newHash") String newHash,
+                    @Param("expiryDate") LocalDateTime expiryDate);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN " +
+            "(SELECT id FROM refresh_tokens WHERE expiry_date < :now LIMIT :batchSize)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
 }
@@ -0,0 +1,27 @@
+package com.ogabek.istudy.repository;
+
+import com.ogabek.istudy.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    boolean existsByJti(String jti);
+
+    List<RevokedToken> findByExpiryDateAfter(LocalDateTime now);
+
+    List<RevokedToken> findByCreatedAtAfterAndExpiryDateAfter(LocalDateTime createdAfter, LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM revoked_tokens WHERE id IN " +
+            "(SELECT id FROM revoked_tokens WHERE expiry_date < :now LIMIT :batchSize)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
@@ -0,0 +1,31 @@
+package com.ogabek.istudy.repository;
+
+import com.ogabek.istudy.entity.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :lockedUntil, l.lockedBy = :lockedBy " +
+            "WHERE l.name = :name AND l.lockedUntil <= :now")
+    int tryAcquire(@Param("name") String name,
+                   @Param("lockedBy") String lockedBy,
+                   @Param("now") LocalDateTime now,
+                   @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :now WHERE l.name = :name AND l.lockedBy = :lockedBy")
+    int release(@Param("name") String name,
+                @Param("lockedBy") String lockedBy,
+                @Param("now") LocalDateTime now);
+}
@@ -1,14 +1,18 @@
 package com.ogabek.istudy.repository;
 
 import com.ogabek.istudy.entity.Student;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
@@ -44,4 +48,13 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
 
     @Query("SELECT s FROM Student s LEFT JOIN FETCH s.branch WHERE s.branch.id = :branchId AND s.deleted = false ORDER BY s.lastName ASC, s.firstName ASC")
     List<Student> findByBranchIdWithBranch(@Param("branchId") Long branchId);
+
+    // Scalar rows for streaming export; nothing enters the persistence context
+    @Query("SELECT s.id, s.firstName, s.lastName, s.phoneNumber, s.parentPhoneNumber, s.paymentDayOfMonth, s.createdAt " +
+            "FROM Student s WHERE s.branch.id = :branchId AND s.deleted = false ORDER BY s.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Object[]> streamExportRows(@Param("branchId") Long branchId);
 }
\ No newline at end of file
@@ -15,6 +15,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.branch WHERE u.username = :username AND u.deleted = false")
     Optional<User> findByUsername(@Param("username") String username);
 
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.branch WHERE u.id = :id AND u.deleted = false")
+    Optional<User> findByIdWithBranch(@Param("id") Long id);
+
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.branch WHERE u.deleted = false")
     List<User> findAllWithBranch();
 
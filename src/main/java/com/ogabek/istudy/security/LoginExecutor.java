@@ -0,0 +1,76 @@
+package com.ogabek.istudy.security;
+
+import com.ogabek.istudy.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt verification is deliberately slow, so logins run on a small dedicated pool
+ * instead of Tomcat request threads. When the queue is full new logins are rejected
+ * straight away with 429 rather than piling up behind each other.
+ */
+@Component
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Timer queueWaitTimer;
+    private final Timer verificationTimer;
+    private final Counter rejectedCounter;
+
+    public LoginExecutor(MeterRegistry meterRegistry,
+                         @Value("${app.login.threads:2}") int threads,
+                         @Value("${app.login.queue-capacity:20}") int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueWaitTimer = Timer.builder("istudy.login.queue.wait")
+                .description("Time a login waited for a verification thread")
+                .register(meterRegistry);
+        this.verificationTimer = Timer.builder("istudy.login.verification")
+                .description("Time spent verifying login credentials")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("istudy.login.rejected")
+                .description("Logins rejected because the login queue was full")
+                .register(meterRegistry);
+        Gauge.builder("istudy.login.queue.size", executor, e -> e.getQueue().size())
+                .description("Logins waiting for a verification thread")
+                .register(meterRegistry);
+        Gauge.builder("istudy.login.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Logins currently being verified")
+                .register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> login) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return verificationTimer.record(login);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Login service is busy. Please try again shortly.", 1);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,98 @@
+package com.ogabek.istudy.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ogabek.istudy.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * In-memory sliding-window limit on failed logins, per client IP and per username from that IP.
+ * Only failed verifications count, so users who log in successfully never use up the window. The
+ * username limit is kept per IP so that someone guessing passwords can't lock the real user out
+ * from their own address.
+ */
+@Component
+public class LoginThrottle {
+
+    private final int maxAttemptsPerUsername;
+    private final int maxAttemptsPerIp;
+    private final long windowMs;
+
+    // Key -> timestamps of failed attempts inside the current window
+    private final Cache<String, Deque<Long>> attempts;
+
+    public LoginThrottle(@Value("${app.login.throttle.max-per-username:10}") int maxAttemptsPerUsername,
+                         @Value("${app.login.throttle.max-per-ip:30}") int maxAttemptsPerIp,
+                         @Value("${app.login.throttle.window-seconds:60}") long windowSeconds) {
+        this.maxAttemptsPerUsername = maxAttemptsPerUsername;
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.windowMs = windowSeconds * 1000;
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterAccess(Duration.ofSeconds(windowSeconds))
+                .build();
+    }
+
+    /**
+     * Rejects the attempt if either the IP or the username from that IP has used up its failures
+     * for the window. Records nothing; see {@link #recordFailure}.
+     */
+    public void checkAllowed(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        long retryAfterMs = Math.max(retryAfter(ipKey(clientIp), maxAttemptsPerIp, now),
+                retryAfter(userKey(username, clientIp), maxAttemptsPerUsername, now));
+
+        if (retryAfterMs > 0) {
+            throw new TooManyRequestsException("Too many login attempts. Please try again later.",
+                    Math.max(1, retryAfterMs / 1000));
+        }
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        record(ipKey(clientIp), now);
+        record(userKey(username, clientIp), now);
+    }
+
+    /**
+     * Returns 0 when the key is under the limit, otherwise the milliseconds until its oldest
+     * failure leaves the window.
+     */
+    private long retryAfter(String key, int limit, long now) {
+        Deque<Long> timestamps = attempts.getIfPresent(key);
+        if (timestamps == null) {
+            return 0;
+        }
+        synchronized (timestamps) {
+            evictExpired(timestamps, now);
+            return timestamps.size() >= limit ? timestamps.peekFirst() + windowMs - now : 0;
+        }
+    }
+
+    private void record(String key, long now) {
+        Deque<Long> timestamps = attempts.get(key, k -> new ArrayDeque<>());
+        synchronized (timestamps) {
+            evictExpired(timestamps, now);
+            timestamps.addLast(now);
+        }
+    }
+
+    private void evictExpired(Deque<Long> timestamps, long now) {
+        while (!timestamps.isEmpty() && timestamps.peekFirst() <= now - windowMs) {
+            timestamps.pollFirst();
+        }
+    }
+
+    private static String ipKey(String clientIp) {
+        return "ip:" + clientIp;
+    }
+
+    private static String userKey(String username, String clientIp) {
+        return "user:" + username.toLowerCase() + "@" + clientIp;
+    }
+}
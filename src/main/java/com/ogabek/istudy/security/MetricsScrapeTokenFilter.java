@@ -0,0 +1,55 @@
+package com.ogabek.istudy.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Lets Prometheus scrape /actuator/prometheus with a static bearer token
+ * ({@code app.metrics.scrape-token}) instead of a short-lived user JWT.
+ * Disabled while the token is empty; super admins can always read the endpoint with their JWT.
+ */
+@Component
+public class MetricsScrapeTokenFilter extends OncePerRequestFilter {
+
+    public static final String SCRAPE_PATH = "/actuator/prometheus";
+
+    private final byte[] expectedHeader;
+
+    public MetricsScrapeTokenFilter(@Value("${app.metrics.scrape-token:}") String scrapeToken) {
+        this.expectedHeader = StringUtils.hasText(scrapeToken)
+                ? ("Bearer " + scrapeToken).getBytes(StandardCharsets.UTF_8)
+                : null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return expectedHeader == null || !SCRAPE_PATH.equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader("Authorization");
+        if (header != null && MessageDigest.isEqual(expectedHeader, header.getBytes(StandardCharsets.UTF_8))) {
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    "metrics-scraper", null, List.of(new SimpleGrantedAuthority("ROLE_METRICS")));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ogabek.istudy.security;
+
+/**
+ * Published when a user's login details change. A {@code null} username means
+ * any number of users may be affected and every cached entry should be dropped.
+ */
+public record UserDetailsChangedEvent(String username) {
+
+    public static UserDetailsChangedEvent allUsers() {
+        return new UserDetailsChangedEvent(null);
+    }
+}
@@ -1,31 +1,80 @@
 package com.ogabek.istudy.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import com.ogabek.istudy.entity.User;
 import com.ogabek.istudy.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
 import java.util.Collections;
 
 @Service
-@RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, MeterBinder {
 
     private final UserRepository userRepository;
 
+    // Only the raw fields are cached: Spring Security erases credentials on the
+    // UserDetails it is handed, so each caller gets a freshly built instance.
+    private final Cache<String, CachedUser> userCache;
+
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  @Value("${app.user-cache.max-size:1000}") long maxSize,
+                                  @Value("${app.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.userCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found: " + username));
+        CachedUser cachedUser = userCache.get(username, this::loadFromDatabase);
 
         return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getUsername())
-                .password(user.getPassword())
-                .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())))
+                .username(cachedUser.username())
+                .password(cachedUser.password())
+                .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + cachedUser.role())))
                 .build();
     }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserDetailsChanged(UserDetailsChangedEvent event) {
+        if (event.username() == null) {
+            userCache.invalidateAll();
+        } else {
+            userCache.invalidate(event.username());
+        }
+    }
+
+    // Hit/miss/eviction counts and size as cache_* meters tagged cache=userDetails
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, userCache, "userDetails");
+    }
+
+    public CacheStats getCacheStats() {
+        return userCache.stats();
+    }
+
+    private CachedUser loadFromDatabase(String username) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User Not Found: " + username));
+        return new CachedUser(user.getUsername(), user.getPassword(), user.getRole().name());
+    }
+
+    private record CachedUser(String username, String password, String role) {
+    }
 }
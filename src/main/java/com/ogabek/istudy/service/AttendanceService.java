@@ -1,12 +1,15 @@
 package com.ogabek.istudy.service;
 
+import com.ogabek.istudy.config.ReadYourWrites;
 import com.ogabek.istudy.dto.request.BulkAttendanceRequest;
 import com.ogabek.istudy.dto.request.MarkAttendanceRequest;
 import com.ogabek.istudy.dto.response.AttendanceDto;
 import com.ogabek.istudy.dto.response.BulkAttendanceResponse;
 import com.ogabek.istudy.dto.response.StudentAttendanceSummaryDto;
 import com.ogabek.istudy.entity.*;
+import com.ogabek.istudy.monitoring.BulkAttendanceEvent;
 import com.ogabek.istudy.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,11 +27,16 @@ public class AttendanceService {
     private final StudentRepository studentRepository;
     private final GroupRepository groupRepository;
     private final BranchRepository branchRepository;
+    private final MeterRegistry meterRegistry;
+    private final ReadYourWrites readYourWrites;
 
     // NEW: Bulk attendance marking
     @Transactional
     public BulkAttendanceResponse markBulkAttendance(BulkAttendanceRequest request) {
-        Group group = groupRepository.findByIdWithAllRelations(request.getGroupId())
+        BulkAttendanceEvent event = new BulkAttendanceEvent();
+        event.begin();
+
+        Group group = groupRepository.findActiveById(request.getGroupId())
                 .orElseThrow(() -> new RuntimeException("Guruh topilmadi: " + request.getGroupId()));
 
         Branch branch = branchRepository.findById(request.getBranchId())
@@ -65,6 +73,7 @@ public class AttendanceService {
 
             Attendance savedAttendance = attendanceRepository.save(attendance);
             savedAttendances.add(convertToDto(savedAttendance));
+            countMark(savedAttendance);
 
             // Count present/absent
             if (savedAttendance.getStatus() == AttendanceStatus.PRESENT) {
@@ -77,6 +86,12 @@ public class AttendanceService {
         String message = String.format("Davomat muvaffaqiyatli saqlandi! Jami: %d, Kelgan: %d, Kelmagan: %d",
                 savedAttendances.size(), presentCount, absentCount);
 
+        event.branchId = branch.getId();
+        event.groupId = group.getId();
+        event.students = savedAttendances.size();
+        event.commit();
+        readYourWrites.recordWrite();
+
         return new BulkAttendanceResponse(
                 group.getId(),
                 group.getName(),
@@ -120,6 +135,8 @@ public class AttendanceService {
         }
 
         Attendance savedAttendance = attendanceRepository.save(attendance);
+        countMark(savedAttendance);
+        readYourWrites.recordWrite();
         return convertToDto(savedAttendance);
     }
 
@@ -178,6 +195,7 @@ public class AttendanceService {
             throw new RuntimeException("Davomat topilmadi: " + id);
         }
         attendanceRepository.deleteById(id);
+        readYourWrites.recordWrite();
     }
 
     private AttendanceDto convertToDto(Attendance attendance) {
@@ -206,4 +224,8 @@ public class AttendanceService {
         dto.setCreatedAt(attendance.getCreatedAt());
         return dto;
     }
-}
\ No newline at end of file
+
+    private void countMark(Attendance attendance) {
+        meterRegistry.counter("istudy.attendance.marked", "status", attendance.getStatus().name()).increment();
+    }
+}
@@ -1,5 +1,6 @@
 package com.ogabek.istudy.service;
 
+import com.ogabek.istudy.config.LongStatements;
 import com.ogabek.istudy.dto.request.CreateBranchRequest;
 import com.ogabek.istudy.dto.response.BranchDto;
 import com.ogabek.istudy.entity.Branch;
@@ -7,8 +8,10 @@ import com.ogabek.istudy.entity.Student;
 import com.ogabek.istudy.entity.Teacher;
 import com.ogabek.istudy.entity.User;
 import com.ogabek.istudy.repository.*;
+import com.ogabek.istudy.security.UserDetailsChangedEvent;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -21,6 +24,8 @@ public class BranchService {
     private final UserRepository userRepository;
     private final StudentRepository studentRepository;
     private final TeacherRepository teacherRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LongStatements longStatements;
 
     public List<BranchDto> getAllBranches() {
         return branchRepository.findAll().stream()
@@ -56,6 +61,7 @@ public class BranchService {
 
     @Transactional
     public void deleteBranch(Long id) {
+        longStatements.allowInCurrentTransaction();
         Branch branch = branchRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Filial topilmadi: " + id));
 
@@ -79,6 +85,8 @@ public class BranchService {
         } catch (Exception e) {
             throw new RuntimeException("Filialni o'chirishda xatolik yuz berdi: " + e.getMessage());
         }
+
+        eventPublisher.publishEvent(UserDetailsChangedEvent.allUsers());
     }
 
     private BranchDto convertToDto(Branch branch) {
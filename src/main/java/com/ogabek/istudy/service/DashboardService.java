@@ -5,12 +5,14 @@ import com.ogabek.istudy.repository.*;
 import com.ogabek.istudy.security.BranchAccessControl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class DashboardService {
 
     private final BranchRepository branchRepository;
@@ -20,12 +22,17 @@ public class DashboardService {
     private final GroupRepository groupRepository;
     private final PaymentRepository paymentRepository;
     private final BranchAccessControl branchAccessControl;
+    private final SingleFlight singleFlight;
 
     public DashboardStatsDto getDashboardStats() {
         if (branchAccessControl.isSuperAdmin()) {
-            return getSuperAdminStats();
+            return singleFlight.execute("dashboard:all", this::getSuperAdminStats);
         } else {
-            return getBranchAdminStats();
+            Long branchId = branchAccessControl.getCurrentUserBranchId();
+            if (branchId == null) {
+                throw new RuntimeException("Branch admin must have a branch assigned");
+            }
+            return singleFlight.execute(SingleFlight.key("dashboard", branchId), () -> getBranchAdminStats(branchId));
         }
     }
 
@@ -44,12 +51,7 @@ public class DashboardService {
                                    totalTeachers, totalGroups, monthlyRevenue, totalRevenue);
     }
 
-    private DashboardStatsDto getBranchAdminStats() {
-        Long branchId = branchAccessControl.getCurrentUserBranchId();
-        if (branchId == null) {
-            throw new RuntimeException("Branch admin must have a branch assigned");
-        }
-
+    private DashboardStatsDto getBranchAdminStats(Long branchId) {
         Long totalBranches = 1L;
         Long totalUsers = (long) userRepository.findByBranchId(branchId).size();
         Long totalStudents = (long) studentRepository.findByBranchId(branchId).size();
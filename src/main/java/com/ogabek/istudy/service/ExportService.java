@@ -0,0 +1,106 @@
+package com.ogabek.istudy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ogabek.istudy.config.RoutingDataSource;
+import com.ogabek.istudy.repository.AttendanceRepository;
+import com.ogabek.istudy.repository.ExpenseRepository;
+import com.ogabek.istudy.repository.PaymentRepository;
+import com.ogabek.istudy.repository.StudentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Streams branch data straight from a database cursor to the response: rows are fetched
+ * {@code fetchSize} at a time as scalar projections (no entities, no persistence context) and
+ * written as they arrive, so exporting years of payments takes the same memory as exporting a day.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final List<String> PAYMENT_COLUMNS = List.of("id", "createdAt", "studentId", "studentFirstName",
+            "studentLastName", "groupId", "groupName", "amount", "category", "status", "paymentYear", "paymentMonth",
+            "dueDate", "description");
+    private static final List<String> ATTENDANCE_COLUMNS = List.of("id", "attendanceDate", "studentId",
+            "studentFirstName", "studentLastName", "groupId", "groupName", "status", "note");
+    private static final List<String> STUDENT_COLUMNS = List.of("id", "firstName", "lastName", "phoneNumber",
+            "parentPhoneNumber", "paymentDayOfMonth", "createdAt");
+    private static final List<String> EXPENSE_COLUMNS = List.of("id", "createdAt", "category", "amount", "description");
+
+    private final PaymentRepository paymentRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final StudentRepository studentRepository;
+    private final ExpenseRepository expenseRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    public long exportPayments(Long branchId, LocalDate startDate, LocalDate endDate, Format format,
+                               OutputStream out) throws IOException {
+        return export("payments", branchId, format, out, PAYMENT_COLUMNS, () -> paymentRepository.streamExportRows(
+                branchId, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX)));
+    }
+
+    public long exportAttendance(Long branchId, LocalDate startDate, LocalDate endDate, Format format,
+                                 OutputStream out) throws IOException {
+        return export("attendance", branchId, format, out, ATTENDANCE_COLUMNS,
+                () -> attendanceRepository.streamExportRows(branchId, startDate, endDate));
+    }
+
+    public long exportStudents(Long branchId, Format format, OutputStream out) throws IOException {
+        return export("students", branchId, format, out, STUDENT_COLUMNS,
+                () -> studentRepository.streamExportRows(branchId));
+    }
+
+    public long exportExpenses(Long branchId, LocalDate startDate, LocalDate endDate, Format format,
+                               OutputStream out) throws IOException {
+        return export("expenses", branchId, format, out, EXPENSE_COLUMNS, () -> expenseRepository.streamExportRows(
+                branchId, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX)));
+    }
+
+    private long export(String dataset, Long branchId, Format format, OutputStream out, List<String> columns,
+                        Supplier<Stream<Object[]>> rows) throws IOException {
+        // The cursor only stays open inside a transaction
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        // Exports run on the async request thread, so the report routing has to be set here
+        RoutingDataSource.markReportRequest();
+        long startedAt = System.nanoTime();
+        try (ExportWriter writer = ExportWriter.open(format, out, columns, objectMapper)) {
+            transaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> stream = rows.get()) {
+                    Iterator<Object[]> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        writer.writeRow(iterator.next());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Exported {} {} rows for branch {} as {} in {} ms", writer.rows(), dataset, branchId, format,
+                    (System.nanoTime() - startedAt) / 1_000_000);
+            return writer.rows();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the transaction is rolled back and the cursor closed
+            throw e.getCause();
+        } finally {
+            RoutingDataSource.clear();
+        }
+    }
+}
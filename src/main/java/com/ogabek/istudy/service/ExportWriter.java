@@ -0,0 +1,139 @@
+package com.ogabek.istudy.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Writes export rows one at a time, so memory use doesn't depend on the number of rows. Output is
+ * flushed every {@value #FLUSH_EVERY_ROWS} rows so the client starts receiving data right away.
+ * Closing flushes but leaves the underlying stream open; it belongs to the caller.
+ */
+abstract class ExportWriter implements Closeable {
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    protected final Writer writer;
+    protected final List<String> columns;
+    private long rows;
+
+    protected ExportWriter(OutputStream out, List<String> columns) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        this.columns = columns;
+    }
+
+    static ExportWriter open(ExportService.Format format, OutputStream out, List<String> columns,
+                             ObjectMapper objectMapper) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(out, columns);
+            case NDJSON -> new Ndjson(out, columns, objectMapper);
+        };
+    }
+
+    void writeRow(Object[] row) throws IOException {
+        write(row);
+        if (++rows % FLUSH_EVERY_ROWS == 0) {
+            flush();
+        }
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    protected abstract void write(Object[] row) throws IOException;
+
+    protected void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    static final class Csv extends ExportWriter {
+
+        // +998 90 123-45-67, +998(90)1234567, -150000.50
+        private static final Pattern PLAIN_NUMBER = Pattern.compile("[+-]?\\d[\\d ().-]*");
+
+        Csv(OutputStream out, List<String> columns) throws IOException {
+            super(out, columns);
+            write(columns.toArray());
+        }
+
+        @Override
+        protected void write(Object[] row) throws IOException {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(row[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(Object value) {
+            if (value == null) {
+                return "";
+            }
+            if (value instanceof BigDecimal decimal) {
+                return decimal.toPlainString();
+            }
+            if (value instanceof Enum<?> constant) {
+                return constant.name();
+            }
+            String text = value.toString();
+            // Free text opened in a spreadsheet must not be evaluated as a formula. Phone numbers and
+            // signed numbers are left alone: they can't call functions, and re-import expects them as is.
+            if (value instanceof String && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0
+                    && !PLAIN_NUMBER.matcher(text).matches()) {
+                text = "'" + text;
+            }
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+            return text;
+        }
+    }
+
+    static final class Ndjson extends ExportWriter {
+
+        private final JsonGenerator generator;
+
+        Ndjson(OutputStream out, List<String> columns, ObjectMapper objectMapper) throws IOException {
+            super(out, columns);
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are separated by the newline below, not Jackson's default space
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        protected void write(Object[] row) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < row.length; i++) {
+                generator.writeFieldName(columns.get(i));
+                generator.writeObject(row[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        protected void flush() throws IOException {
+            generator.flush();
+            super.flush();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.ogabek.istudy.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ogabek.istudy.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * {@code Idempotency-Key} support for create endpoints: a request retried with the same key gets
+ * the original response instead of creating a second payment or sale.
+ *
+ * <p>Only requests still in flight are held in memory. A concurrent duplicate on the same instance
+ * finds the first request's future there and waits for it; requests with different keys never
+ * wait on each other. Every key is written to {@code idempotency_keys}, in the same transaction as
+ * the business write, and finished responses are replayed from there, so they survive restarts,
+ * are visible to other instances and don't grow the heap. The key row is inserted before the
+ * action runs. A concurrent duplicate on another instance then blocks on the unique key until the
+ * first transaction commits, and replays its response.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final String INSERT_KEY = "INSERT INTO idempotency_keys (idempotency_key, request_hash, created_at, " +
+            "expires_at) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_KEY = "SELECT request_hash, response FROM idempotency_keys WHERE idempotency_key = ?";
+    private static final String UPDATE_RESPONSE = "UPDATE idempotency_keys SET response = ? WHERE idempotency_key = ?";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLockService schedulerLockService;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CompletableFuture<Stored>> inFlight = new ConcurrentHashMap<>();
+    private final Duration ttl;
+    private final int purgeBatchSize;
+    private final Counter replayedCounter;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              SchedulerLockService schedulerLockService,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.purge-batch-size:1000}") int purgeBatchSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.schedulerLockService = schedulerLockService;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.purgeBatchSize = purgeBatchSize;
+        this.replayedCounter = Counter.builder("istudy.idempotency.replayed")
+                .description("Create requests answered with the response of an earlier request with the same key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} once per {@code scope}, user and client key and returns its response;
+     * later calls with the same key return the stored response without running it again. Without
+     * a key the action simply runs.
+     */
+    public <T> T execute(String scope, String clientKey, Object request, Class<T> responseType, Supplier<T> action) {
+        if (clientKey == null) {
+            return action.get();
+        }
+        if (clientKey.isBlank() || clientKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException(HEADER + " 1-" + MAX_KEY_LENGTH + " belgidan iborat bo'lishi kerak");
+        }
+
+        String key = scope + ":" + currentUsername() + ":" + clientKey;
+        String requestHash = fingerprint(request);
+
+        CompletableFuture<Stored> claim = new CompletableFuture<>();
+        CompletableFuture<Stored> running = inFlight.putIfAbsent(key, claim);
+        if (running != null) {
+            Stored stored;
+            try {
+                stored = running.join();
+            } catch (CompletionException e) {
+                // The first request failed and stored nothing; this one fails the same way
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            return replay(stored, requestHash, responseType);
+        }
+
+        Stored stored;
+        try {
+            stored = executeOnce(key, requestHash, responseType, action);
+        } catch (RuntimeException e) {
+            claim.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Committed by now (or failed): later duplicates replay from the table
+            inFlight.remove(key, claim);
+        }
+        claim.complete(stored);
+        return stored.replayed() ? replay(stored, requestHash, responseType) : responseType.cast(stored.response());
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}", initialDelay = 60000)
+    public void deleteExpiredKeys() {
+        schedulerLockService.runLocked("purge-expired-idempotency-keys", Duration.ofMinutes(10), () -> {
+            LocalDateTime now = LocalDateTime.now();
+            int total = 0;
+            int deleted;
+            do {
+                deleted = idempotencyRecordRepository.deleteExpiredBatch(now, purgeBatchSize);
+                total += deleted;
+            } while (deleted == purgeBatchSize);
+
+            if (total > 0) {
+                log.info("Purged {} expired idempotency keys", total);
+            }
+        });
+    }
+
+    private <T> Stored executeOnce(String key, String requestHash, Class<T> responseType, Supplier<T> action) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            T response = transactionTemplate.execute(status -> {
+                jdbcTemplate.update(INSERT_KEY, key, requestHash, Timestamp.valueOf(now), Timestamp.valueOf(now.plus(ttl)));
+                T result = action.get();
+                jdbcTemplate.update(UPDATE_RESPONSE, toJson(result), key);
+                return result;
+            });
+            return new Stored(requestHash, response, false);
+        } catch (DuplicateKeyException e) {
+            // The key was already committed, possibly by another instance that this insert waited for.
+            // Read it outside a read-only transaction so it comes from the primary, not a replica.
+            List<Stored> stored = jdbcTemplate.query(SELECT_KEY,
+                    (rs, rowNum) -> new Stored(rs.getString("request_hash"),
+                            fromJson(rs.getString("response"), responseType), true),
+                    key);
+            if (stored.isEmpty()) {
+                throw e;
+            }
+            return stored.get(0);
+        }
+    }
+
+    private <T> T replay(Stored stored, String requestHash, Class<T> responseType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new RuntimeException(HEADER + " boshqa so'rov uchun allaqachon ishlatilgan");
+        }
+        replayedCounter.increment();
+        return responseType.cast(stored.response());
+    }
+
+    private String toJson(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response for idempotency key", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(json, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored idempotent response", e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsString(request)
+                    .getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize request for idempotency key", e);
+        }
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+
+    // replayed: the response was read back from the table rather than produced by this call
+    private record Stored(String requestHash, Object response, boolean replayed) {
+    }
+}
@@ -1,25 +1,46 @@
 package com.ogabek.istudy.service;
 
+import com.ogabek.istudy.config.LongStatements;
+import com.ogabek.istudy.config.ReadYourWrites;
+import com.ogabek.istudy.dto.request.BulkPaymentRequest;
 import com.ogabek.istudy.dto.request.CreatePaymentRequest;
+import com.ogabek.istudy.dto.response.BulkPaymentResponse;
 import com.ogabek.istudy.dto.response.PaymentDto;
 import com.ogabek.istudy.entity.*;
 import com.ogabek.istudy.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
 import java.time.LocalDate;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentService {
+    private static final String INSERT_PAYMENT = "INSERT INTO payments (id, student_id, group_id, amount, description, " +
+            "category, status, branch_id, payment_year, payment_month, due_date, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     private final PaymentRepository paymentRepository;
     private final StudentRepository studentRepository;
     private final BranchRepository branchRepository;
     private final GroupRepository groupRepository;
+    private final MeterRegistry meterRegistry;
+    private final ReadYourWrites readYourWrites;
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIds sequenceIds;
+    private final Validator validator;
+    private final LongStatements longStatements;
 
     @Transactional(readOnly = true)
     public List<PaymentDto> getPaymentsByBranch(Long branchId) {
@@ -65,7 +86,7 @@ public class PaymentService {
         Student student = studentRepository.findById(request.getStudentId())
                 .orElseThrow(() -> new RuntimeException("Student not found with id: " + request.getStudentId()));
 
-        Group group = groupRepository.findByIdWithAllRelations(request.getGroupId())
+        Group group = groupRepository.findActiveById(request.getGroupId())
                 .orElseThrow(() -> new RuntimeException("Group not found with id: " + request.getGroupId()));
 
         if (group.getStudents() == null || !group.getStudents().contains(student)) {
@@ -90,10 +111,13 @@ public class PaymentService {
         payment.setPaymentMonth(request.getPaymentMonth());
 
         // SIMPLE: Calculate due date
-        LocalDate dueDate = calculateDueDate(student, request.getPaymentYear(), request.getPaymentMonth());
+        LocalDate dueDate = calculateDueDate(student.getPaymentDayOfMonth(), request.getPaymentYear(), request.getPaymentMonth());
         payment.setDueDate(dueDate);
 
         Payment savedPayment = paymentRepository.save(payment);
+        meterRegistry.counter("istudy.payments.created", "category", payment.getCategory().name()).increment();
+        meterRegistry.summary("istudy.payments.amount").record(payment.getAmount().doubleValue());
+        readYourWrites.recordWrite();
 
         Payment paymentWithRelations = paymentRepository.findByIdWithAllRelations(savedPayment.getId())
                 .orElseThrow(() -> new RuntimeException("Failed to fetch created payment"));
@@ -101,11 +125,93 @@ public class PaymentService {
         return convertToDto(paymentWithRelations);
     }
 
+    // Bulk entry of a shift's receipts: memberships checked with one query, due dates computed in
+    // memory, and the valid rows inserted with one JDBC batch. Invalid rows are reported, not inserted.
+    @Transactional
+    public BulkPaymentResponse createPayments(BulkPaymentRequest request) {
+        longStatements.allowInCurrentTransaction();
+        Long branchId = request.getBranchId();
+        if (!branchRepository.existsById(branchId)) {
+            throw new RuntimeException("Filial topilmadi: " + branchId);
+        }
+
+        List<BulkPaymentRequest.PaymentItem> items = request.getPayments();
+        Set<Long> studentIds = items.stream()
+                .map(BulkPaymentRequest.PaymentItem::getStudentId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        // "groupId:studentId" -> the student's payment day (may be null)
+        Map<String, Integer> memberships = new HashMap<>();
+        if (!studentIds.isEmpty()) {
+            for (Object[] membership : groupRepository.findMemberships(branchId, studentIds)) {
+                memberships.put(membership[0] + ":" + membership[1], (Integer) membership[2]);
+            }
+        }
+
+        List<BulkPaymentResponse.RowResult> results = new ArrayList<>(items.size());
+        List<BulkPaymentResponse.RowResult> accepted = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkPaymentRequest.PaymentItem item = items.get(i);
+            String error = validatePaymentItem(item, memberships);
+            if (error != null) {
+                results.add(new BulkPaymentResponse.RowResult(i, item.getStudentId(), item.getGroupId(), false,
+                        null, null, error));
+                continue;
+            }
+            LocalDate dueDate = calculateDueDate(memberships.get(item.getGroupId() + ":" + item.getStudentId()),
+                    item.getPaymentYear(), item.getPaymentMonth());
+            BulkPaymentResponse.RowResult result = new BulkPaymentResponse.RowResult(i, item.getStudentId(),
+                    item.getGroupId(), true, null, dueDate, null);
+            results.add(result);
+            accepted.add(result);
+        }
+
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        if (!accepted.isEmpty()) {
+            long[] ids = sequenceIds.reserve("payments_seq", accepted.size());
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(accepted.size());
+            for (int i = 0; i < accepted.size(); i++) {
+                BulkPaymentResponse.RowResult result = accepted.get(i);
+                BulkPaymentRequest.PaymentItem item = items.get(result.getIndex());
+                long id = ids[i];
+                result.setPaymentId(id);
+                rows.add(new Object[]{id, item.getStudentId(), item.getGroupId(), item.getAmount(),
+                        item.getDescription(), item.getCategory(), PaymentStatus.COMPLETED.name(), branchId,
+                        item.getPaymentYear(), item.getPaymentMonth(), Date.valueOf(result.getDueDate()), now});
+
+                totalAmount = totalAmount.add(item.getAmount());
+                meterRegistry.counter("istudy.payments.created", "category", item.getCategory()).increment();
+                meterRegistry.summary("istudy.payments.amount").record(item.getAmount().doubleValue());
+            }
+            jdbcTemplate.batchUpdate(INSERT_PAYMENT, rows);
+            readYourWrites.recordWrite();
+        }
+
+        return new BulkPaymentResponse(branchId, items.size(), accepted.size(), items.size() - accepted.size(),
+                totalAmount, results);
+    }
+
+    private String validatePaymentItem(BulkPaymentRequest.PaymentItem item, Map<String, Integer> memberships) {
+        Set<ConstraintViolation<BulkPaymentRequest.PaymentItem>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        if (!memberships.containsKey(item.getGroupId() + ":" + item.getStudentId())) {
+            return "O'quvchi bu guruhda yo'q!";
+        }
+        return null;
+    }
+
     // SIMPLE: Calculate when payment is due
-    private LocalDate calculateDueDate(Student student, int year, int month) {
+    private LocalDate calculateDueDate(Integer paymentDayOfMonth, int year, int month) {
         // Use student's payment day if available
-        int dayOfMonth = student.getPaymentDayOfMonth() != null
-                ? student.getPaymentDayOfMonth()
+        int dayOfMonth = paymentDayOfMonth != null
+                ? paymentDayOfMonth
                 : 1; // Default to 1st if not set
 
         try {
@@ -128,6 +234,7 @@ public class PaymentService {
 
         payment.setAmount(newAmount);
         Payment savedPayment = paymentRepository.save(payment);
+        readYourWrites.recordWrite();
 
         Payment updatedPaymentWithRelations = paymentRepository.findByIdWithAllRelations(savedPayment.getId())
                 .orElseThrow(() -> new RuntimeException("Failed to fetch updated payment"));
@@ -141,10 +248,12 @@ public class PaymentService {
             throw new RuntimeException("Payment not found with id: " + id);
         }
         paymentRepository.deleteById(id);
+        readYourWrites.recordWrite();
     }
 
     @Transactional(readOnly = true)
     public List<PaymentDto> getPaymentsByDateRange(Long branchId, LocalDate startDate, LocalDate endDate) {
+        longStatements.allowInCurrentTransaction();
         return paymentRepository.findByBranchIdAndCreatedAtBetweenWithRelations(
                         branchId,
                         startDate.atStartOfDay(),
@@ -164,6 +273,7 @@ public class PaymentService {
 
     @Transactional(readOnly = true)
     public List<PaymentDto> searchPaymentsByStudentName(Long branchId, String studentName) {
+        longStatements.allowInCurrentTransaction();
         return paymentRepository.findByBranchIdWithAllRelations(branchId).stream()
                 .filter(payment -> {
                     if (payment.getStudent() != null) {
@@ -178,6 +288,7 @@ public class PaymentService {
 
     @Transactional(readOnly = true)
     public List<PaymentDto> getRecentPayments(Long branchId, int limit) {
+        longStatements.allowInCurrentTransaction();
         return paymentRepository.findByBranchIdWithAllRelations(branchId).stream()
                 .limit(limit)
                 .map(this::convertToDto)
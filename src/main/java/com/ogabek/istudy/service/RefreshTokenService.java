@@ -1,54 +1,99 @@
 package com.ogabek.istudy.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.ogabek.istudy.entity.RefreshToken;
 import com.ogabek.istudy.entity.User;
 import com.ogabek.istudy.repository.RefreshTokenRepository;
 import com.ogabek.istudy.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.Optional;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class RefreshTokenService {
 
     @Value("${jwt.refresh.expiration:604800000}")
     private Long refreshTokenDurationMs;
 
+    @Value("${app.refresh-token.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
     private final RefreshTokenRepository refreshTokenRepository;
     private final UserRepository userRepository;
+    private final SchedulerLockService schedulerLockService;
 
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
-    }
+    // Token hash -> row it was issued for. Only a hint: rotation re-checks the hash in the database.
+    private final Cache<String, CachedRefreshToken> tokenCache = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
 
+    /**
+     * Issues a new refresh token for the user, replacing any previous one in place.
+     * Returns the raw token; only its hash is stored.
+     */
     @Transactional
-    public RefreshToken createRefreshToken(Long userId) {
+    public String createRefreshToken(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
 
-        refreshTokenRepository.deleteByUser(user);
-        refreshTokenRepository.flush();
+        RefreshToken refreshToken = refreshTokenRepository.findByUser(user).orElseGet(RefreshToken::new);
+        if (refreshToken.getTokenHash() != null) {
+            tokenCache.invalidate(refreshToken.getTokenHash());
+        }
 
-        RefreshToken refreshToken = new RefreshToken();
+        String token = UUID.randomUUID().toString();
         refreshToken.setUser(user);
+        refreshToken.setTokenHash(hash(token));
         refreshToken.setExpiryDate(LocalDateTime.now().plusSeconds(refreshTokenDurationMs / 1000));
-        refreshToken.setToken(UUID.randomUUID().toString());
 
-        return refreshTokenRepository.save(refreshToken);
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+        tokenCache.put(saved.getTokenHash(), new CachedRefreshToken(saved.getId(), userId, saved.getExpiryDate()));
+        return token;
     }
 
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().isBefore(LocalDateTime.now())) {
-            refreshTokenRepository.delete(token);
+    /**
+     * Exchanges a valid refresh token for a new one. The presented token stops working,
+     * and if two requests race with the same token only one of them succeeds.
+     */
+    public RotatedRefreshToken rotateRefreshToken(String token) {
+        String oldHash = hash(token);
+        CachedRefreshToken current = tokenCache.get(oldHash, this::loadByHash);
+        if (current == null) {
+            throw new RuntimeException("Refresh token is not in database!");
+        }
+        tokenCache.invalidate(oldHash);
+
+        if (current.expiryDate().isBefore(LocalDateTime.now())) {
+            refreshTokenRepository.deleteById(current.id());
             throw new RuntimeException("Refresh token was expired. Please make a new signin request");
         }
-        return token;
+
+        String newToken = UUID.randomUUID().toString();
+        String newHash = hash(newToken);
+        LocalDateTime expiryDate = LocalDateTime.now().plusSeconds(refreshTokenDurationMs / 1000);
+
+        if (refreshTokenRepository.rotateToken(current.id(), oldHash, newHash, expiryDate) == 0) {
+            throw new RuntimeException("Refresh token is not in database!");
+        }
+
+        tokenCache.put(newHash, new CachedRefreshToken(current.id(), current.userId(), expiryDate));
+        return new RotatedRefreshToken(newToken, current.userId());
     }
 
     @Transactional
@@ -60,12 +105,48 @@ public class RefreshTokenService {
 
     @Transactional
     public void deleteByToken(String token) {
-        Optional<RefreshToken> refreshToken = refreshTokenRepository.findByToken(token);
+        String tokenHash = hash(token);
+        tokenCache.invalidate(tokenHash);
+        Optional<RefreshToken> refreshToken = refreshTokenRepository.findByTokenHash(tokenHash);
         refreshToken.ifPresent(refreshTokenRepository::delete);
     }
 
-    @Transactional
+    @Scheduled(fixedDelayString = "${app.refresh-token.purge-interval-ms:3600000}", initialDelay = 60000)
     public void deleteExpiredTokens() {
-        refreshTokenRepository.deleteByExpiryDateBefore(LocalDateTime.now());
+        schedulerLockService.runLocked("purge-expired-refresh-tokens", Duration.ofMinutes(10), () -> {
+            LocalDateTime now = LocalDateTime.now();
+            int total = 0;
+            int deleted;
+            // Each batch commits on its own so the purge never holds long locks on the table
+            do {
+                deleted = refreshTokenRepository.deleteExpiredBatch(now, purgeBatchSize);
+                total += deleted;
+            } while (deleted == purgeBatchSize);
+
+            if (total > 0) {
+                log.info("Purged {} expired refresh tokens", total);
+            }
+        });
+    }
+
+    private CachedRefreshToken loadByHash(String tokenHash) {
+        return refreshTokenRepository.findByTokenHash(tokenHash)
+                .map(rt -> new CachedRefreshToken(rt.getId(), rt.getUser().getId(), rt.getExpiryDate()))
+                .orElse(null);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record RotatedRefreshToken(String token, Long userId) {
+    }
+
+    private record CachedRefreshToken(Long id, Long userId, LocalDateTime expiryDate) {
     }
 }
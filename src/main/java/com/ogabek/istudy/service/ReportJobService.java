@@ -0,0 +1,267 @@
+package com.ogabek.istudy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ogabek.istudy.config.DatabaseBulkhead;
+import com.ogabek.istudy.dto.request.CreateReportJobRequest;
+import com.ogabek.istudy.dto.response.ReportJobDto;
+import com.ogabek.istudy.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs long report computations (all-time and multi-year ranges) off the request thread, so they
+ * can't run into proxy timeouts. Jobs go through a small bounded pool; at most
+ * {@code app.report-jobs.max-per-branch} jobs per branch may be queued or running at once, and
+ * finished jobs are kept with their result for {@code app.report-jobs.result-ttl-minutes}, within
+ * a total of {@code app.report-jobs.max-cached-weight} result values (see {@link #weigh}). Jobs
+ * only produce summaries; row lists are streamed by {@code /api/exports} instead of held here.
+ *
+ * <p>Cancelling a running job marks it cancelled and interrupts its thread; a query that is
+ * already executing ends when it completes or hits the reporting pool's statement timeout.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+
+    public enum Type { ALL_TIME_EXPENSE, RANGE_EXPENSE, RANGE_PAYMENT, FINANCIAL_SUMMARY_RANGE }
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED }
+
+    private final ReportService reportService;
+    private final DatabaseBulkhead databaseBulkhead;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, ReportJob> jobs;
+    private final Map<Long, AtomicInteger> activeByBranch = new ConcurrentHashMap<>();
+    private final int maxPerBranch;
+    private final Duration resultTtl;
+    private final Timer runTimer;
+    private final Counter rejectedCounter;
+
+    public ReportJobService(ReportService reportService,
+                            DatabaseBulkhead databaseBulkhead,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.report-jobs.threads:2}") int threads,
+                            @Value("${app.report-jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${app.report-jobs.max-per-branch:2}") int maxPerBranch,
+                            @Value("${app.report-jobs.result-ttl-minutes:30}") long resultTtlMinutes,
+                            @Value("${app.report-jobs.max-cached-weight:100000}") long maxCachedWeight) {
+        this.reportService = reportService;
+        this.databaseBulkhead = databaseBulkhead;
+        this.maxPerBranch = maxPerBranch;
+        this.resultTtl = Duration.ofMinutes(resultTtlMinutes);
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(resultTtl)
+                .maximumWeight(maxCachedWeight)
+                // Re-weighed when the finished job is put back with its result
+                .weigher((String id, ReportJob job) -> weigh(job.result))
+                .build();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.runTimer = Timer.builder("istudy.report_jobs.run")
+                .description("Time spent computing a report job")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("istudy.report_jobs.rejected")
+                .description("Report jobs rejected because the queue or the branch limit was full")
+                .register(meterRegistry);
+        Gauge.builder("istudy.report_jobs.queue.size", executor, e -> e.getQueue().size())
+                .description("Report jobs waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("istudy.report_jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Report jobs currently running")
+                .register(meterRegistry);
+    }
+
+    public ReportJobDto submit(CreateReportJobRequest request) {
+        Type type = Type.valueOf(request.getType().toUpperCase());
+        if (type != Type.ALL_TIME_EXPENSE) {
+            if (request.getStartDate() == null || request.getEndDate() == null) {
+                throw new RuntimeException("Boshlanish va tugash sanalari majburiy");
+            }
+            if (request.getEndDate().isBefore(request.getStartDate())) {
+                throw new RuntimeException("Tugash sanasi boshlanish sanasidan oldin bo'lishi mumkin emas");
+            }
+        }
+
+        AtomicInteger active = activeByBranch.computeIfAbsent(request.getBranchId(), id -> new AtomicInteger());
+        if (active.incrementAndGet() > maxPerBranch) {
+            active.decrementAndGet();
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Bu filial uchun hisobotlar allaqachon tayyorlanmoqda. Keyinroq urinib ko'ring.", 10);
+        }
+
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), type, request.getBranchId(),
+                request.getStartDate(), request.getEndDate());
+        job.task = new FutureTask<>(() -> run(job)) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    job.status = Status.CANCELLED;
+                    job.finishedAt = Instant.now();
+                }
+                active.decrementAndGet();
+                jobs.put(job.id, job);
+            }
+        };
+        jobs.put(job.id, job);
+
+        try {
+            executor.execute(job.task);
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id);
+            active.decrementAndGet();
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Hisobot navbati to'la. Keyinroq urinib ko'ring.", 10);
+        }
+        return toDto(job);
+    }
+
+    public ReportJobDto getJob(String id) {
+        return toDto(find(id));
+    }
+
+    /**
+     * Result of a succeeded job, or {@code null} while it is still queued or running or if it
+     * failed or was cancelled.
+     */
+    public Object getResult(String id) {
+        ReportJob job = find(id);
+        return job.status == Status.SUCCEEDED ? job.result : null;
+    }
+
+    public ReportJobDto cancel(String id) {
+        ReportJob job = find(id);
+        job.task.cancel(true);
+        return toDto(job);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Object run(ReportJob job) {
+        job.status = Status.RUNNING;
+        job.startedAt = Instant.now();
+        try {
+            // Shares the report permits, and so the reporting pool, with report requests
+            Object result = databaseBulkhead.runAsReport(() -> runTimer.record(() -> compute(job)));
+            // A cancelled job keeps its CANCELLED status even if the computation got to finish
+            if (!job.task.isCancelled()) {
+                job.result = result;
+                job.status = Status.SUCCEEDED;
+                job.finishedAt = Instant.now();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            if (!job.task.isCancelled()) {
+                log.warn("Report job {} ({}, branch {}) failed: {}", job.id, job.type, job.branchId, e.getMessage());
+                job.error = e.getMessage();
+                job.status = Status.FAILED;
+                job.finishedAt = Instant.now();
+            }
+            throw e;
+        }
+    }
+
+    private Object compute(ReportJob job) {
+        return switch (job.type) {
+            case ALL_TIME_EXPENSE -> reportService.getAllTimeExpenseReport(job.branchId);
+            case RANGE_EXPENSE -> reportService.getExpenseRangeReport(job.branchId, job.startDate, job.endDate);
+            case RANGE_PAYMENT -> reportService.getPaymentRangeReport(job.branchId, job.startDate, job.endDate);
+            case FINANCIAL_SUMMARY_RANGE -> reportService.getFinancialSummaryRange(job.branchId, job.startDate, job.endDate);
+        };
+    }
+
+    // Counts the values in a result, nested maps and collections included; a job without one weighs 1
+    static int weigh(Object result) {
+        if (result instanceof Map<?, ?> map) {
+            int weight = 1;
+            for (Object value : map.values()) {
+                weight += weigh(value);
+            }
+            return weight;
+        }
+        if (result instanceof Collection<?> collection) {
+            int weight = 1;
+            for (Object element : collection) {
+                weight += weigh(element);
+            }
+            return weight;
+        }
+        return 1;
+    }
+
+    private ReportJob find(String id) {
+        ReportJob job = jobs.getIfPresent(id);
+        if (job == null) {
+            throw new RuntimeException("Hisobot topilmadi yoki muddati o'tgan: " + id);
+        }
+        return job;
+    }
+
+    private ReportJobDto toDto(ReportJob job) {
+        ReportJobDto dto = new ReportJobDto();
+        dto.setId(job.id);
+        dto.setType(job.type.name());
+        dto.setBranchId(job.branchId);
+        dto.setStartDate(job.startDate);
+        dto.setEndDate(job.endDate);
+        dto.setStatus(job.status.name());
+        dto.setSubmittedAt(job.submittedAt);
+        dto.setStartedAt(job.startedAt);
+        dto.setFinishedAt(job.finishedAt);
+        dto.setError(job.error);
+        if (job.finishedAt != null) {
+            dto.setExpiresAt(job.finishedAt.plus(resultTtl));
+        }
+        return dto;
+    }
+
+    private static class ReportJob {
+        private final String id;
+        private final Type type;
+        private final Long branchId;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final Instant submittedAt = Instant.now();
+        private FutureTask<Object> task;
+        private volatile Status status = Status.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile Object result;
+        private volatile String error;
+
+        ReportJob(String id, Type type, Long branchId, LocalDate startDate, LocalDate endDate) {
+            this.id = id;
+            this.type = type;
+            this.branchId = branchId;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+    }
+}
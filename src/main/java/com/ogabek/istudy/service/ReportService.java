@@ -1,11 +1,13 @@
 package com.ogabek.istudy.service;
 
+import com.ogabek.istudy.monitoring.ReportComputationEvent;
 import com.ogabek.istudy.repository.ExpenseRepository;
 import com.ogabek.istudy.repository.PaymentRepository;
 import com.ogabek.istudy.repository.ProductSaleRepository;
 import com.ogabek.istudy.repository.TeacherSalaryPaymentRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -16,13 +18,23 @@ import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ReportService {
     private final PaymentRepository paymentRepository;
     private final ExpenseRepository expenseRepository;
     private final TeacherSalaryPaymentRepository salaryPaymentRepository;
     private final ProductSaleRepository productSaleRepository;
+    private final SingleFlight singleFlight;
 
     public Map<String, Object> getDailyExpenseReport(Long branchId, LocalDate date) {
+        return singleFlight.execute(SingleFlight.key("report", "getDailyExpenseReport", branchId, date),
+                () -> computeDailyExpenseReport(branchId, date));
+    }
+
+    private Map<String, Object> computeDailyExpenseReport(Long branchId, LocalDate date) {
+        ReportComputationEvent event = new ReportComputationEvent();
+        event.begin();
+
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
 
@@ -39,10 +51,18 @@ public class ReportService {
         report.put("totalExpenses", totalExpenses);
         report.put("type", "DAILY_EXPENSE");
 
-        return report;
+        return completed(event, branchId, report);
     }
 
     public Map<String, Object> getMonthlyExpenseReport(Long branchId, int year, int month) {
+        return singleFlight.execute(SingleFlight.key("report", "getMonthlyExpenseReport", branchId, year, month),
+                () -> computeMonthlyExpenseReport(branchId, year, month));
+    }
+
+    private Map<String, Object> computeMonthlyExpenseReport(Long branchId, int year, int month) {
+        ReportComputationEvent event = new ReportComputationEvent();
+        event.begin();
+
         BigDecimal regularExpenses = expenseRepository.sumMonthlyExpenses(branchId, year, month);
         BigDecimal salaryExpenses = salaryPaymentRepository.sumMonthlySalaryPayments(branchId, year, month);
         BigDecimal totalExpenses = (regularExpenses != null ? regularExpenses : BigDecimal.ZERO)
@@ -57,10 +77,18 @@ public class ReportService {
         report.put("totalExpenses", totalExpenses);
         report.put("type", "MONTHLY_EXPENSE");
 
-        return report;
+        return completed(event, branchId, report);
     }
 
     public Map<String, Object> getExpenseRangeReport(Long branchId, LocalDate startDate, LocalDate endDate) {
+        return singleFlight.execute(SingleFlight.key("report", "getExpenseRangeReport", branchId, startDate, endDate),
+                () -> computeExpenseRangeReport(branchId, startDate, endDate));
+    }
+
+    private Map<String, Object> computeExpenseRangeReport(Long branchId, LocalDate startDate, LocalDate endDate) {
+        ReportComputationEvent event = new ReportComputationEvent();
+        event.begin();
+
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
 
@@ -78,10 +106,18 @@ public class ReportService {
         report.put("totalExpenses", totalExpenses);
         report.put("type", "RANGE_EXPENSE");
 
-        return report;
+        return completed(event, branchId, report);
     }
 
     public Map<String, Object> getAllTimeExpenseReport(Long branchId) {
+        return singleFlight.execute(SingleFlight.key("report", "getAllTimeExpenseReport", branchId),
+                () -> computeAllTimeExpenseReport(branchId));
+    }
+
+    private Map<String, Object> computeAllTimeExpenseReport(Long branchId) {
+        ReportComputationEvent event = new ReportComputationEvent();
+        event.begin();
+
         BigDecimal regularExpenses = expenseRepository.sumAllTimeExpenses(branchId);
         BigDecimal salaryExpenses = salaryPaymentRepository.sumAllTimeSalaryPayments(branchId);
         BigDecimal totalExpenses = (regularExpenses != null ? regularExpenses : BigDecimal.ZERO)
@@ -94,10 +130,18 @@ public class ReportService {
         report.put("totalExpenses", totalExpenses);
         report.put("type", "ALL_TIME_EXPENSE");
 
-        return report;
+        return completed(event, branchId, report);
     }
 
     public Map<String, Object> getFinancialSummary(Long branchId, int year, int month) {
+        return singleFlight.execute(SingleFlight.key("report", "getFinancialSummary", branchId, year, month),
+                () -> computeFinancialSummary(branchId, year, month));
+    }
+
+    private Map<String, Object> computeFinancialSummary(Long branchId, int year, int month) {
+        ReportComputationEvent event = new ReportComputationEvent();
+        event.begin();
+
         // Income sources
         BigDecimal studentPayments = paymentRepository.sumMonthlyPayments(branchId, year, month);
         BigDecimal productSales = productSaleRepository.sumTotalAmountByMonth(branchId, year, month);
@@ -125,10 +169,18 @@ public class ReportService {
         summary.put("netProfit", netProfit);
         summary.put("type", "FINANCIAL_SUMMARY");
 
-        return summary;
+        return completed(event, branchId, summary);
     }
 
     public Map<String, Object> getFinancialSummaryRange(Long branchId, LocalDate startDate, LocalDate endDate) {
+        return singleFlight.execute(SingleFlight.key("report", "getFinancialSummaryRange", branchId, startDate, endDate),
+                () -> computeFinancialSummaryRange(branchId, startDate, endDate));
+    }
+
+    private Map<String, Object> computeFinancialSummaryRange(Long branchId, LocalDate startDate, LocalDate endDate) {
+        ReportComputationEvent event = new ReportComputationEvent();
+        event.begin();
+
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
 
@@ -159,10 +211,18 @@ public class ReportService {
         summary.put("netProfit", netProfit);
         summary.put("type", "FINANCIAL_SUMMARY_RANGE");
 
-        return summary;
+        return completed(event, branchId, summary);
     }
 
     public Map<String, Object> getDailyPaymentReport(Long branchId, LocalDate date) {
+        return singleFlight.execute(SingleFlight.key("report", "getDailyPaymentReport", branchId, date),
+                () -> computeDailyPaymentReport(branchId, date));
+    }
+
+    private Map<String, Object> computeDailyPaymentReport(Long branchId, LocalDate date) {
+        ReportComputationEvent event = new ReportComputationEvent();
+        event.begin();
+
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
 
@@ -179,10 +239,18 @@ public class ReportService {
         report.put("totalIncome", totalIncome);
         report.put("type", "DAILY_PAYMENT");
 
-        return report;
+        return completed(event, branchId, report);
     }
 
     public Map<String, Object> getMonthlyPaymentReport(Long branchId, int year, int month) {
+        return singleFlight.execute(SingleFlight.key("report", "getMonthlyPaymentReport", branchId, year, month),
+                () -> computeMonthlyPaymentReport(branchId, year, month));
+    }
+
+    private Map<String, Object> computeMonthlyPaymentReport(Long branchId, int year, int month) {
+        ReportComputationEvent event = new ReportComputationEvent();
+        event.begin();
+
         BigDecimal studentPayments = paymentRepository.sumMonthlyPayments(branchId, year, month);
         BigDecimal productSales = productSaleRepository.sumTotalAmountByMonth(branchId, year, month);
         BigDecimal totalIncome = (studentPayments != null ? studentPayments : BigDecimal.ZERO)
@@ -197,10 +265,18 @@ public class ReportService {
         report.put("totalIncome", totalIncome);
         report.put("type", "MONTHLY_PAYMENT");
 
-        return report;
+        return completed(event, branchId, report);
     }
 
     public Map<String, Object> getPaymentRangeReport(Long branchId, LocalDate startDate, LocalDate endDate) {
+        return singleFlight.execute(SingleFlight.key("report", "getPaymentRangeReport", branchId, startDate, endDate),
+                () -> computePaymentRangeReport(branchId, startDate, endDate));
+    }
+
+    private Map<String, Object> computePaymentRangeReport(Long branchId, LocalDate startDate, LocalDate endDate) {
+        ReportComputationEvent event = new ReportComputationEvent();
+        event.begin();
+
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
 
@@ -218,6 +294,13 @@ public class ReportService {
         report.put("totalIncome", totalIncome);
         report.put("type", "RANGE_PAYMENT");
 
+        return completed(event, branchId, report);
+    }
+
+    private Map<String, Object> completed(ReportComputationEvent event, Long branchId, Map<String, Object> report) {
+        event.branchId = branchId;
+        event.report = (String) report.get("type");
+        event.commit();
         return report;
     }
-}
\ No newline at end of file
+}
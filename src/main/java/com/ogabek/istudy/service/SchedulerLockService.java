@@ -0,0 +1,66 @@
+package com.ogabek.istudy.service;
+
+import com.ogabek.istudy.entity.SchedulerLock;
+import com.ogabek.istudy.repository.SchedulerLockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Database-backed lock so a scheduled job runs on only one instance at a time.
+ * A lock is held until released or until {@code lockAtMostFor} passes, so a
+ * crashed instance can't block the job forever.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerLockService {
+
+    private final SchedulerLockRepository schedulerLockRepository;
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    /**
+     * Runs the task if the named lock could be taken, otherwise skips it.
+     * Returns whether the task ran.
+     */
+    public boolean runLocked(String name, Duration lockAtMostFor, Runnable task) {
+        if (!tryAcquire(name, lockAtMostFor)) {
+            log.debug("Skipping job {}: locked by another instance", name);
+            return false;
+        }
+
+        try {
+            task.run();
+            return true;
+        } finally {
+            schedulerLockRepository.release(name, instanceId, LocalDateTime.now());
+        }
+    }
+
+    private boolean tryAcquire(String name, Duration lockAtMostFor) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lockedUntil = now.plus(lockAtMostFor);
+
+        if (schedulerLockRepository.tryAcquire(name, instanceId, now, lockedUntil) > 0) {
+            return true;
+        }
+
+        if (schedulerLockRepository.existsById(name)) {
+            return false;
+        }
+
+        // First run of this job anywhere: create the lock row already held by us
+        try {
+            schedulerLockRepository.saveAndFlush(new SchedulerLock(name, lockedUntil, instanceId));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.ogabek.istudy.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Reserves ids for rows written with plain JDBC from the same sequences Hibernate uses. The
+ * sequences are pooled-lo with an increment of {@value #ALLOCATION_SIZE}: {@code nextval} returns
+ * the low end of a block of that many ids. Several blocks are taken with one {@code nextval} each,
+ * in a single statement. Every block is handed out atomically by the sequence, so Hibernate
+ * allocating at the same time gets other blocks. Blocks taken together are not necessarily
+ * adjacent.
+ */
+@Component
+@RequiredArgsConstructor
+public class SequenceIds {
+
+    // Must match the allocationSize of the entities' sequence generators
+    static final int ALLOCATION_SIZE = 50;
+
+    private static final String NEXT_BLOCKS = "SELECT nextval(?::regclass) FROM generate_series(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns {@code count} unused ids from {@code sequence}, ascending within each block of
+     * {@value #ALLOCATION_SIZE}.
+     */
+    public long[] reserve(String sequence, int count) {
+        int blocks = Math.max(1, (count + ALLOCATION_SIZE - 1) / ALLOCATION_SIZE);
+        List<Long> blockStarts = jdbcTemplate.queryForList(NEXT_BLOCKS, Long.class, sequence, blocks);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = blockStarts.get(i / ALLOCATION_SIZE) + i % ALLOCATION_SIZE;
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,95 @@
+package com.ogabek.istudy.service;
+
+import com.ogabek.istudy.config.ReadYourWrites;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent reads: the first caller for a key computes the result, and
+ * callers arriving with the same key while it runs wait for that computation instead of starting
+ * their own. Nothing is cached; the key is forgotten as soon as the computation finishes.
+ *
+ * <p>Only for idempotent reads whose key captures everything the result depends on, including
+ * the caller's branch scope. Results are shared between callers and must not be modified. A user
+ * who has just written skips coalescing, since a computation already in flight may predate the write.
+ */
+@Component
+public class SingleFlight {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ReadYourWrites readYourWrites;
+    private final Counter computedCounter;
+    private final Counter coalescedCounter;
+
+    public SingleFlight(MeterRegistry meterRegistry, ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        this.computedCounter = Counter.builder("istudy.singleflight.computed")
+                .description("Coalescable reads that were actually computed")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("istudy.singleflight.coalesced")
+                .description("Reads served by joining a computation already in flight")
+                .register(meterRegistry);
+        Gauge.builder("istudy.singleflight.in_flight", inFlight, Map::size)
+                .description("Distinct computations currently in flight")
+                .register(meterRegistry);
+    }
+
+    public static String key(Object... parts) {
+        StringBuilder key = new StringBuilder();
+        for (Object part : parts) {
+            if (!key.isEmpty()) {
+                key.append(':');
+            }
+            key.append(part);
+        }
+        return key.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> computation) {
+        if (readYourWrites.isRecentWriter()) {
+            return computation.get();
+        }
+
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return (T) join(existing);
+        }
+
+        computedCounter.increment();
+        try {
+            T result = computation.get();
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
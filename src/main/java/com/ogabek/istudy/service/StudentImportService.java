@@ -0,0 +1,407 @@
+package com.ogabek.istudy.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ogabek.istudy.config.LongStatements;
+import com.ogabek.istudy.config.ReadYourWrites;
+import com.ogabek.istudy.dto.request.CreateStudentRequest;
+import com.ogabek.istudy.dto.response.StudentImportResponse;
+import com.ogabek.istudy.repository.BranchRepository;
+import com.ogabek.istudy.repository.GroupRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Imports students in bulk from a CSV file or a JSON array, for onboarding a branch in one request
+ * instead of hundreds of {@code POST /api/students} calls.
+ *
+ * <p>The body is read as a stream and handled {@code app.student-import.chunk-size} rows at a time:
+ * rows are validated with the same rules as {@link CreateStudentRequest}, group ids are checked
+ * against the branch's groups (loaded once), and the valid rows are written with two JDBC batches,
+ * students and {@code group_students}, in one transaction per chunk. Invalid rows are skipped and
+ * reported with their row number; the valid ones are imported. If a chunk fails to save, the
+ * import stops there and the response says how many rows were saved by the chunks before it.
+ */
+@Service
+@Slf4j
+public class StudentImportService {
+
+    static final List<String> CSV_COLUMNS = List.of("firstName", "lastName", "phoneNumber", "parentPhoneNumber",
+            "paymentDayOfMonth", "groupIds");
+
+    private static final String INSERT_STUDENT = "INSERT INTO students (id, first_name, last_name, phone_number, " +
+            "parent_phone_number, branch_id, deleted, payment_day_of_month, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, false, ?, ?)";
+    private static final String INSERT_MEMBERSHIP = "INSERT INTO group_students (group_id, student_id) VALUES (?, ?)";
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final BranchRepository branchRepository;
+    private final GroupRepository groupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIds sequenceIds;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ReadYourWrites readYourWrites;
+    private final LongStatements longStatements;
+    private final int chunkSize;
+    private final int maxRows;
+
+    public StudentImportService(BranchRepository branchRepository,
+                                GroupRepository groupRepository,
+                                JdbcTemplate jdbcTemplate,
+                                SequenceIds sequenceIds,
+                                PlatformTransactionManager transactionManager,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                ReadYourWrites readYourWrites,
+                                LongStatements longStatements,
+                                @Value("${app.student-import.chunk-size:500}") int chunkSize,
+                                @Value("${app.student-import.max-rows:20000}") int maxRows) {
+        this.branchRepository = branchRepository;
+        this.groupRepository = groupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.sequenceIds = sequenceIds;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.readYourWrites = readYourWrites;
+        this.longStatements = longStatements;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * CSV with a header row naming the columns ({@link #CSV_COLUMNS}, any order, case-insensitive).
+     * {@code groupIds} holds ids separated by {@code ;} or spaces.
+     */
+    public StudentImportResponse importCsv(Long branchId, InputStream body) throws IOException {
+        Importer importer = new Importer(branchId);
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new RuntimeException("Fayl bo'sh");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // Excel saves UTF-8 CSV with a byte order mark
+            String name = header.get(i).replace("\uFEFF", "").trim();
+            for (String column : CSV_COLUMNS) {
+                if (column.equalsIgnoreCase(name)) {
+                    columns.put(column, i);
+                }
+            }
+        }
+        if (!columns.containsKey("firstName") || !columns.containsKey("lastName")) {
+            throw new RuntimeException("CSV sarlavhasida firstName va lastName ustunlari bo'lishi shart");
+        }
+
+        List<String> fields;
+        while ((fields = reader.next()) != null) {
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            if (!importer.add(fromCsv(fields, columns))) {
+                break;
+            }
+        }
+        return importer.finish();
+    }
+
+    /**
+     * JSON array of objects with the {@link CreateStudentRequest} fields; {@code branchId} is
+     * taken from the request, not from the rows.
+     */
+    public StudentImportResponse importJson(Long branchId, InputStream body) throws IOException {
+        Importer importer = new Importer(branchId);
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new RuntimeException("JSON massiv kutilgan");
+            }
+            while (true) {
+                JsonNode node;
+                try {
+                    if (parser.nextToken() != JsonToken.START_OBJECT) {
+                        break;
+                    }
+                    node = objectMapper.readTree(parser);
+                } catch (JsonProcessingException e) {
+                    // Malformed JSON: nothing after this point can be read reliably
+                    importer.fail("JSON noto'g'ri: " + e.getOriginalMessage());
+                    break;
+                }
+
+                CreateStudentRequest request;
+                try {
+                    request = objectMapper.treeToValue(node, CreateStudentRequest.class);
+                } catch (JsonProcessingException e) {
+                    if (!importer.add(new ImportRow(null, "Qiymat noto'g'ri: " + e.getOriginalMessage()))) {
+                        break;
+                    }
+                    continue;
+                }
+                if (!importer.add(new ImportRow(request, null))) {
+                    break;
+                }
+            }
+        }
+        return importer.finish();
+    }
+
+    private ImportRow fromCsv(List<String> fields, Map<String, Integer> columns) {
+        CreateStudentRequest request = new CreateStudentRequest();
+        request.setFirstName(field(fields, columns, "firstName"));
+        request.setLastName(field(fields, columns, "lastName"));
+        request.setPhoneNumber(field(fields, columns, "phoneNumber"));
+        request.setParentPhoneNumber(field(fields, columns, "parentPhoneNumber"));
+
+        String paymentDay = field(fields, columns, "paymentDayOfMonth");
+        if (paymentDay != null) {
+            try {
+                request.setPaymentDayOfMonth(Integer.parseInt(paymentDay));
+            } catch (NumberFormatException e) {
+                return new ImportRow(null, "To'lov kuni raqam bo'lishi kerak: " + paymentDay);
+            }
+        }
+
+        String groupIds = field(fields, columns, "groupIds");
+        if (groupIds != null) {
+            List<Long> ids = new ArrayList<>();
+            for (String id : groupIds.split("[;\\s]+")) {
+                try {
+                    ids.add(Long.parseLong(id));
+                } catch (NumberFormatException e) {
+                    return new ImportRow(null, "Guruh id raqam bo'lishi kerak: " + id);
+                }
+            }
+            request.setGroupIds(ids);
+        }
+        return new ImportRow(request, null);
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private record ImportRow(CreateStudentRequest request, String error) {
+    }
+
+    /**
+     * Collects rows into chunks and writes each chunk as soon as it is full.
+     */
+    private class Importer {
+
+        private final Long branchId;
+        private final Set<Long> branchGroupIds;
+        private final StudentImportResponse response = new StudentImportResponse();
+        private final List<CreateStudentRequest> chunk = new ArrayList<>();
+        private final long startedAt = System.nanoTime();
+        private int rowNumber;
+        private int chunkFirstRow;
+
+        Importer(Long branchId) {
+            if (!branchRepository.existsById(branchId)) {
+                throw new RuntimeException("Filial topilmadi: " + branchId);
+            }
+            this.branchId = branchId;
+            this.branchGroupIds = new HashSet<>(groupRepository.findIdsByBranchId(branchId));
+        }
+
+        /**
+         * Returns {@code false} once the row limit is reached or a chunk failed, and reading should stop.
+         */
+        boolean add(ImportRow row) {
+            if (response.isAborted()) {
+                return false;
+            }
+            if (rowNumber >= maxRows) {
+                fail("Fayl juda katta: ko'pi bilan " + maxRows + " qator import qilinadi");
+                return false;
+            }
+            rowNumber++;
+            response.setTotalRows(rowNumber);
+
+            String error = row.error() != null ? row.error() : validate(row.request());
+            if (error != null) {
+                error(rowNumber, error);
+                return true;
+            }
+            if (chunk.isEmpty()) {
+                chunkFirstRow = rowNumber;
+            }
+            chunk.add(row.request());
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+            return !response.isAborted();
+        }
+
+        // An error that ends the import, reported against the row after the last one read
+        void fail(String message) {
+            error(rowNumber + 1, message);
+        }
+
+        StudentImportResponse finish() {
+            if (!response.isAborted()) {
+                flush();
+            }
+            log.info("Imported {} of {} students into branch {} in {} ms", response.getImported(),
+                    response.getTotalRows(), branchId, (System.nanoTime() - startedAt) / 1_000_000);
+            return response;
+        }
+
+        private String validate(CreateStudentRequest request) {
+            request.setBranchId(branchId);
+            Set<ConstraintViolation<CreateStudentRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                return violations.stream()
+                        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+            }
+            if (request.getGroupIds() != null) {
+                for (Long groupId : request.getGroupIds()) {
+                    if (!branchGroupIds.contains(groupId)) {
+                        return "Guruh topilmadi yoki boshqa filialga tegishli: " + groupId;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void error(int row, String message) {
+            response.setFailed(response.getFailed() + 1);
+            if (response.getErrors().size() < MAX_REPORTED_ERRORS) {
+                response.getErrors().add(new StudentImportResponse.RowError(row, message));
+            } else {
+                response.setErrorsTruncated(true);
+            }
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertChunk(now));
+            } catch (DataAccessException | TransactionException e) {
+                log.warn("Student import into branch {} stopped at rows {}-{}: {}", branchId, chunkFirstRow,
+                        rowNumber, e.getMessage());
+                response.setAborted(true);
+                error(chunkFirstRow, "Qatorlar " + chunkFirstRow + "-" + rowNumber + " saqlanmadi, import to'xtatildi. "
+                        + response.getImported() + " ta o'quvchi import qilindi; qolgan qatorlarni qayta yuboring");
+                // error() counted one row; the rest of the chunk failed with it
+                response.setFailed(response.getFailed() + chunk.size() - 1);
+                chunk.clear();
+                return;
+            }
+            response.setImported(response.getImported() + chunk.size());
+            chunk.clear();
+        }
+
+        private void insertChunk(Timestamp now) {
+            longStatements.allowInCurrentTransaction();
+            long[] ids = sequenceIds.reserve("students_seq", chunk.size());
+            List<Object[]> students = new ArrayList<>(chunk.size());
+            List<Object[]> memberships = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                CreateStudentRequest request = chunk.get(i);
+                long id = ids[i];
+                students.add(new Object[]{id, request.getFirstName(), request.getLastName(),
+                        request.getPhoneNumber(), request.getParentPhoneNumber(), branchId,
+                        request.getPaymentDayOfMonth(), now});
+                if (request.getGroupIds() != null) {
+                    for (Long groupId : new LinkedHashSet<>(request.getGroupIds())) {
+                        memberships.add(new Object[]{groupId, id});
+                    }
+                }
+            }
+            jdbcTemplate.batchUpdate(INSERT_STUDENT, students);
+            jdbcTemplate.batchUpdate(INSERT_MEMBERSHIP, memberships);
+            readYourWrites.recordWrite();
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 reader: quoted fields may contain commas, doubled quotes and line breaks.
+     */
+    static final class CsvReader {
+
+        private final BufferedReader in;
+
+        CsvReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        // Fields of the next record, or null at the end of the input
+        List<String> next() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean read = false;
+            int c;
+            while ((c = in.read()) != -1) {
+                read = true;
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        int following = in.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (following != -1) {
+                                in.reset();
+                            }
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (!read) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 // src/main/java/com/ogabek/istudy/service/StudentService.java
 package com.ogabek.istudy.service;
 
+import com.ogabek.istudy.config.LongStatements;
 import com.ogabek.istudy.dto.request.CreateStudentRequest;
 import com.ogabek.istudy.dto.response.GroupDto;
 import com.ogabek.istudy.dto.response.PaymentDto;
@@ -10,6 +11,7 @@ import com.ogabek.istudy.entity.Branch;
 import com.ogabek.istudy.entity.Group;
 import com.ogabek.istudy.entity.Payment;
 import com.ogabek.istudy.entity.Student;
+import com.ogabek.istudy.monitoring.StudentListEvent;
 import com.ogabek.istudy.repository.BranchRepository;
 import com.ogabek.istudy.repository.GroupRepository;
 import com.ogabek.istudy.repository.PaymentRepository;
@@ -32,24 +34,40 @@ public class StudentService {
     private final BranchRepository branchRepository;
     private final PaymentRepository paymentRepository;
     private final GroupRepository groupRepository;
+    private final SingleFlight singleFlight;
+    private final LongStatements longStatements;
 
     @Transactional(readOnly = true)
     public List<StudentDto> getStudentsByBranch(Long branchId) {
+        StudentListEvent event = new StudentListEvent();
+        event.begin();
+        longStatements.allowInCurrentTransaction();
+
         LocalDate paymentPeriod = getCurrentPaymentPeriod();
-        return studentRepository.findByBranchIdWithBranch(branchId).stream()
+        List<StudentDto> students = studentRepository.findByBranchIdWithBranch(branchId).stream()
                 .map(student -> convertToDto(student, paymentPeriod.getYear(), paymentPeriod.getMonthValue()))
                 .collect(Collectors.toList());
+
+        commitListEvent(event, branchId, "BRANCH", students.size());
+        return students;
     }
 
     @Transactional(readOnly = true)
     public List<StudentDto> getStudentsByBranch(Long branchId, Integer year, Integer month) {
+        StudentListEvent event = new StudentListEvent();
+        event.begin();
+        longStatements.allowInCurrentTransaction();
+
         LocalDate paymentPeriod = getCurrentPaymentPeriod();
         int targetYear = year != null ? year : paymentPeriod.getYear();
         int targetMonth = month != null ? month : paymentPeriod.getMonthValue();
 
-        return studentRepository.findByBranchIdWithBranch(branchId).stream()
+        List<StudentDto> students = studentRepository.findByBranchIdWithBranch(branchId).stream()
                 .map(student -> convertToDto(student, targetYear, targetMonth))
                 .collect(Collectors.toList());
+
+        commitListEvent(event, branchId, "BRANCH", students.size());
+        return students;
     }
 
     @Transactional(readOnly = true)
@@ -72,6 +90,14 @@ public class StudentService {
 
     @Transactional(readOnly = true)
     public List<UnpaidStudentDto> getUnpaidStudents(Long branchId, Integer year, Integer month) {
+        return singleFlight.execute(SingleFlight.key("unpaid-students", branchId, year, month),
+                () -> computeUnpaidStudents(branchId, year, month));
+    }
+
+    private List<UnpaidStudentDto> computeUnpaidStudents(Long branchId, Integer year, Integer month) {
+        StudentListEvent event = new StudentListEvent();
+        event.begin();
+
         List<UnpaidStudentDto> result = new ArrayList<>();
         List<Group> branchGroups = groupRepository.findByBranchIdWithAllRelations(branchId);
 
@@ -116,6 +142,7 @@ public class StudentService {
             }
         }
 
+        commitListEvent(event, branchId, "UNPAID", result.size());
         return result;
     }
 
@@ -325,6 +352,13 @@ public class StudentService {
 
     // ==================== PRIVATE HELPER METHODS ====================
 
+    private void commitListEvent(StudentListEvent event, Long branchId, String list, int rows) {
+        event.branchId = branchId;
+        event.list = list;
+        event.rows = rows;
+        event.commit();
+    }
+
     private LocalDate getCurrentPaymentPeriod() {
         LocalDate now = LocalDate.now();
         if (now.getDayOfMonth() < 5) {
@@ -6,6 +6,7 @@ import com.ogabek.istudy.dto.response.SalaryCalculationDto;
 import com.ogabek.istudy.dto.response.TeacherSalaryHistoryDto;
 import com.ogabek.istudy.dto.response.TeacherSalaryPaymentDto;
 import com.ogabek.istudy.entity.*;
+import com.ogabek.istudy.monitoring.PayrollComputationEvent;
 import com.ogabek.istudy.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -26,6 +27,7 @@ public class TeacherSalaryService {
     private final BranchRepository branchRepository;
     private final PaymentRepository paymentRepository;
     private final GroupRepository groupRepository;
+    private final SingleFlight singleFlight;
 
     @Transactional(readOnly = true)
     public SalaryCalculationDto calculateTeacherSalary(Long teacherId, int year, int month) {
@@ -102,11 +104,26 @@ public class TeacherSalaryService {
 
     @Transactional(readOnly = true)
     public List<SalaryCalculationDto> calculateSalariesForBranch(Long branchId, int year, int month) {
+        return singleFlight.execute(SingleFlight.key("branch-salaries", branchId, year, month),
+                () -> computeSalariesForBranch(branchId, year, month));
+    }
+
+    private List<SalaryCalculationDto> computeSalariesForBranch(Long branchId, int year, int month) {
+        PayrollComputationEvent event = new PayrollComputationEvent();
+        event.begin();
+
         List<Teacher> teachers = teacherRepository.findByBranchIdWithBranch(branchId);
 
-        return teachers.stream()
+        List<SalaryCalculationDto> salaries = teachers.stream()
                 .map(teacher -> calculateTeacherSalary(teacher.getId(), year, month))
                 .collect(Collectors.toList());
+
+        event.branchId = branchId;
+        event.year = year;
+        event.month = month;
+        event.teachers = salaries.size();
+        event.commit();
+        return salaries;
     }
 
     @Transactional
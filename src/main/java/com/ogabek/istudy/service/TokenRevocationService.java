@@ -0,0 +1,123 @@
+package com.ogabek.istudy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.ogabek.istudy.entity.RevokedToken;
+import com.ogabek.istudy.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Denylist of access tokens (by jti) that were revoked before they expired.
+ * Lookups are served from memory only. The revoked_tokens table lets the set
+ * survive restarts and carries revocations between instances: each instance
+ * picks up new rows every {@code app.token-revocation.sync-interval-ms}.
+ * Entries drop out of memory once the token expires, and expired rows are
+ * purged by a scheduled job.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationService {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final SchedulerLockService schedulerLockService;
+
+    @Value("${app.token-revocation.sync-interval-ms:10000}")
+    private long syncIntervalMs;
+
+    @Value("${app.token-revocation.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    // Rows created after this were not seen yet; only touched by the scheduler thread after startup
+    private volatile LocalDateTime syncedUntil;
+
+    private final Cache<String, LocalDateTime> revokedJtis = Caffeine.newBuilder()
+            .expireAfter(new Expiry<String, LocalDateTime>() {
+                @Override
+                public long expireAfterCreate(String jti, LocalDateTime expiryDate, long currentTime) {
+                    Duration remaining = Duration.between(LocalDateTime.now(), expiryDate);
+                    return remaining.isNegative() ? 0 : remaining.toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String jti, LocalDateTime expiryDate, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String jti, LocalDateTime expiryDate, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    @PostConstruct
+    public void loadRevokedTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.findByExpiryDateAfter(now)
+                .forEach(token -> revokedJtis.put(token.getJti(), token.getExpiryDate()));
+        syncedUntil = now;
+        log.info("Loaded {} revoked access tokens", revokedJtis.estimatedSize());
+    }
+
+    // Picks up tokens revoked on other instances since the last sync
+    @Scheduled(fixedDelayString = "${app.token-revocation.sync-interval-ms:10000}",
+            initialDelayString = "${app.token-revocation.sync-interval-ms:10000}")
+    public void syncRevokedTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        // Overlap by one interval so rows committed late or stamped by a slightly slower clock aren't missed
+        LocalDateTime since = syncedUntil.minus(Duration.ofMillis(syncIntervalMs));
+        revokedTokenRepository.findByCreatedAtAfterAndExpiryDateAfter(since, now)
+                .forEach(token -> revokedJtis.put(token.getJti(), token.getExpiryDate()));
+        syncedUntil = now;
+    }
+
+    @Scheduled(fixedDelayString = "${app.token-revocation.purge-interval-ms:3600000}", initialDelay = 60000)
+    public void deleteExpiredTokens() {
+        schedulerLockService.runLocked("purge-expired-revoked-tokens", Duration.ofMinutes(10), () -> {
+            LocalDateTime now = LocalDateTime.now();
+            int total = 0;
+            int deleted;
+            // Each batch commits on its own so the purge never holds long locks on the table
+            do {
+                deleted = revokedTokenRepository.deleteExpiredBatch(now, purgeBatchSize);
+                total += deleted;
+            } while (deleted == purgeBatchSize);
+
+            if (total > 0) {
+                log.info("Purged {} expired revoked tokens", total);
+            }
+        });
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && revokedJtis.getIfPresent(jti) != null;
+    }
+
+    public void revoke(String jti, Date expiration) {
+        if (jti == null || expiration == null || isRevoked(jti)) {
+            return;
+        }
+
+        LocalDateTime expiryDate = LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault());
+        revokedJtis.put(jti, expiryDate);
+
+        if (!revokedTokenRepository.existsByJti(jti)) {
+            RevokedToken revokedToken = new RevokedToken();
+            revokedToken.setJti(jti);
+            revokedToken.setExpiryDate(expiryDate);
+            revokedTokenRepository.save(revokedToken);
+        }
+    }
+}
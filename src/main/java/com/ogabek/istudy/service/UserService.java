@@ -6,22 +6,31 @@ import com.ogabek.istudy.dto.request.UpdateUserRequest;
 import com.ogabek.istudy.dto.response.JwtResponse;
 import com.ogabek.istudy.dto.response.UserDto;
 import com.ogabek.istudy.entity.Branch;
-import com.ogabek.istudy.entity.RefreshToken;
 import com.ogabek.istudy.entity.Role;
 import com.ogabek.istudy.entity.User;
+import com.ogabek.istudy.exception.TooManyRequestsException;
+import com.ogabek.istudy.monitoring.LoginEvent;
 import com.ogabek.istudy.repository.BranchRepository;
 import com.ogabek.istudy.repository.UserRepository;
 import com.ogabek.istudy.security.JwtUtils;
+import com.ogabek.istudy.security.LoginExecutor;
+import com.ogabek.istudy.security.LoginThrottle;
+import com.ogabek.istudy.security.UserDetailsChangedEvent;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,11 +42,52 @@ public class UserService {
     private final AuthenticationManager authenticationManager;
     private final JwtUtils jwtUtils;
     private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LoginThrottle loginThrottle;
+    private final LoginExecutor loginExecutor;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Runs the login on the dedicated login executor so BCrypt never blocks a request thread.
+     * Throttled or over-capacity attempts fail fast with {@link TooManyRequestsException}; only
+     * failed verifications count towards the throttle.
+     */
+    public CompletableFuture<JwtResponse> login(LoginRequest request, String clientIp) {
+        try {
+            loginThrottle.checkAllowed(request.getUsername(), clientIp);
+        } catch (TooManyRequestsException e) {
+            countLogin("throttled");
+            throw e;
+        }
+
+        return loginExecutor.submit(() -> {
+            try {
+                return login(request);
+            } catch (AuthenticationException e) {
+                loginThrottle.recordFailure(request.getUsername(), clientIp);
+                throw e;
+            }
+        });
+    }
 
     public JwtResponse login(LoginRequest request) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
+        LoginEvent event = new LoginEvent();
+        event.begin();
+
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
+            );
+        } catch (AuthenticationException e) {
+            countLogin("failure");
+            event.commit();
+            throw e;
+        }
+        countLogin("success");
+        event.success = true;
+        event.commit();
 
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String jwt = jwtUtils.generateJwtToken(userDetails.getUsername());
@@ -45,9 +95,9 @@ public class UserService {
         User user = userRepository.findByUsername(userDetails.getUsername())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getId());
+        String refreshToken = refreshTokenService.createRefreshToken(user.getId());
 
-        JwtResponse response = new JwtResponse(jwt, refreshToken.getToken());
+        JwtResponse response = new JwtResponse(jwt, refreshToken);
         response.setUserId(user.getId());
         response.setUsername(user.getUsername());
         response.setRole(user.getRole().name());
@@ -110,6 +160,7 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserDetailsChangedEvent(savedUser.getUsername()));
         return convertToDto(savedUser);
     }
 
@@ -134,31 +185,36 @@ public class UserService {
         // Soft delete by setting deleted flag
         user.setDeleted(true);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserDetailsChangedEvent(user.getUsername()));
     }
 
     public JwtResponse refreshToken(String refreshTokenStr) {
-        return refreshTokenService.findByToken(refreshTokenStr)
-                .map(refreshTokenService::verifyExpiration)
-                .map(RefreshToken::getUser)
-                .map(user -> {
-                    String token = jwtUtils.generateJwtToken(user.getUsername());
-                    JwtResponse response = new JwtResponse(token, refreshTokenStr);
-                    response.setUserId(user.getId());
-                    response.setUsername(user.getUsername());
-                    response.setRole(user.getRole().name());
-
-                    if (user.getBranch() != null) {
-                        response.setBranchId(user.getBranch().getId());
-                        response.setBranchName(user.getBranch().getName());
-                    }
-
-                    return response;
-                })
-                .orElseThrow(() -> new RuntimeException("Refresh token is not in database!"));
+        RefreshTokenService.RotatedRefreshToken rotated = refreshTokenService.rotateRefreshToken(refreshTokenStr);
+        User user = userRepository.findByIdWithBranch(rotated.userId())
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + rotated.userId()));
+
+        String token = jwtUtils.generateJwtToken(user.getUsername());
+        JwtResponse response = new JwtResponse(token, rotated.token());
+        response.setUserId(user.getId());
+        response.setUsername(user.getUsername());
+        response.setRole(user.getRole().name());
+
+        if (user.getBranch() != null) {
+            response.setBranchId(user.getBranch().getId());
+            response.setBranchName(user.getBranch().getName());
+        }
+
+        return response;
     }
 
-    public void logout(Long userId) {
+    public void logout(Long userId, String accessToken) {
         refreshTokenService.deleteByUserId(userId);
+
+        // Access tokens are stateless, so the current one has to be denylisted until it expires
+        Claims claims = jwtUtils.parseJwtToken(accessToken);
+        if (claims != null) {
+            tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+        }
     }
 
     @Transactional
@@ -171,6 +227,7 @@ public class UserService {
             throw new RuntimeException("Username already exists: " + request.getUsername());
         }
 
+        String previousUsername = user.getUsername();
         user.setUsername(request.getUsername());
 
         if (request.getPassword() != null && !request.getPassword().trim().isEmpty()) {
@@ -188,6 +245,8 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserDetailsChangedEvent(previousUsername));
+        eventPublisher.publishEvent(new UserDetailsChangedEvent(savedUser.getUsername()));
         return convertToDto(savedUser);
     }
 
@@ -205,4 +264,8 @@ public class UserService {
         dto.setCreatedAt(user.getCreatedAt());
         return dto;
     }
+
+    private void countLogin(String result) {
+        meterRegistry.counter("istudy.logins", "result", result).increment();
+    }
 }
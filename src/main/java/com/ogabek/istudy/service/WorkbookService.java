@@ -0,0 +1,332 @@
+package com.ogabek.istudy.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.ogabek.istudy.config.DatabaseBulkhead;
+import com.ogabek.istudy.dto.response.GroupSalaryInfo;
+import com.ogabek.istudy.dto.response.SalaryCalculationDto;
+import com.ogabek.istudy.dto.response.UnpaidStudentDto;
+import com.ogabek.istudy.entity.Branch;
+import com.ogabek.istudy.exception.TooManyRequestsException;
+import com.ogabek.istudy.repository.BranchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the accountants' Excel workbook (financial summary, payroll per teacher and group, unpaid
+ * students) for one branch or all branches, for a month or a whole year.
+ *
+ * <p>Workbooks are generated on a small background pool with POI's streaming writer: only
+ * {@code app.workbooks.row-window} rows per sheet are kept in memory, the rest are flushed to
+ * compressed temp files, and each branch-month is computed, written and dropped before the next
+ * one, so a full-year all-branch workbook takes the same heap as a single month.
+ *
+ * <p>Finished files are kept on disk. Workbooks for closed periods (ending before the current
+ * month) are reused for {@code app.workbooks.closed-period-ttl-hours}; a workbook that covers the
+ * current month is only kept for {@code app.workbooks.open-period-ttl-minutes}, long enough for
+ * the polling client to download it.
+ */
+@Service
+@Slf4j
+public class WorkbookService {
+
+    public static final String CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private static final List<String> SUMMARY_COLUMNS = List.of("Branch", "Year", "Month", "Student payments",
+            "Product sales", "Total income", "Regular expenses", "Salary payments", "Total expenses", "Net profit");
+    private static final List<String> PAYROLL_COLUMNS = List.of("Branch", "Year", "Month", "Teacher", "Base salary",
+            "Payment-based salary", "Total salary", "Already paid", "Remaining", "Group", "Students",
+            "Group payments");
+    private static final List<String> UNPAID_COLUMNS = List.of("Branch", "Year", "Month", "Student ID",
+            "First name", "Last name", "Phone", "Parent phone", "Group", "Remaining amount");
+
+    private final ReportService reportService;
+    private final TeacherSalaryService teacherSalaryService;
+    private final StudentService studentService;
+    private final BranchRepository branchRepository;
+    private final DatabaseBulkhead databaseBulkhead;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Future<?>> generating = new ConcurrentHashMap<>();
+    private final Cache<String, Generated> generated;
+    private final int rowWindow;
+    private final Timer generateTimer;
+    private final Counter reusedCounter;
+
+    public WorkbookService(ReportService reportService,
+                           TeacherSalaryService teacherSalaryService,
+                           StudentService studentService,
+                           BranchRepository branchRepository,
+                           DatabaseBulkhead databaseBulkhead,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.workbooks.threads:1}") int threads,
+                           @Value("${app.workbooks.queue-capacity:10}") int queueCapacity,
+                           @Value("${app.workbooks.row-window:100}") int rowWindow,
+                           @Value("${app.workbooks.max-cached:50}") long maxCached,
+                           @Value("${app.workbooks.closed-period-ttl-hours:24}") long closedPeriodTtlHours,
+                           @Value("${app.workbooks.open-period-ttl-minutes:10}") long openPeriodTtlMinutes) {
+        this.reportService = reportService;
+        this.teacherSalaryService = teacherSalaryService;
+        this.studentService = studentService;
+        this.branchRepository = branchRepository;
+        this.databaseBulkhead = databaseBulkhead;
+        this.rowWindow = rowWindow;
+
+        Duration closedTtl = Duration.ofHours(closedPeriodTtlHours);
+        Duration openTtl = Duration.ofMinutes(openPeriodTtlMinutes);
+        this.generated = Caffeine.newBuilder()
+                .maximumSize(maxCached)
+                .expireAfter(Expiry.creating((String key, Generated value) -> value.closedPeriod ? closedTtl : openTtl))
+                .removalListener((String key, Generated value, RemovalCause cause) -> {
+                    if (value != null && value.file != null) {
+                        deleteQuietly(value.file);
+                    }
+                })
+                .build();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "workbook-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.generateTimer = Timer.builder("istudy.workbooks.generate")
+                .description("Time spent generating an Excel workbook")
+                .register(meterRegistry);
+        this.reusedCounter = Counter.builder("istudy.workbooks.reused")
+                .description("Workbook requests served from an already generated file")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the generated workbook, or {@code null} if it is still being generated; the first
+     * call for a period starts the generation.
+     *
+     * @param branchId branch to export, or {@code null} for all branches
+     * @param month    month to export, or {@code null} for the whole year
+     */
+    public Path getWorkbook(Long branchId, int year, Integer month) {
+        YearMonth current = YearMonth.now();
+        YearMonth first = YearMonth.of(year, month != null ? month : 1);
+        YearMonth last = month != null ? first : YearMonth.of(year, 12);
+        if (first.isAfter(current)) {
+            throw new RuntimeException("Kelajakdagi davr uchun hisobot tayyorlab bo'lmaydi");
+        }
+        if (last.isAfter(current)) {
+            last = current;
+        }
+
+        String key = (branchId != null ? branchId : "all") + ":" + year + ":" + (month != null ? month : "year");
+        Generated workbook = generated.getIfPresent(key);
+        if (workbook != null) {
+            if (workbook.error != null) {
+                // Report the failure once; the next request tries again
+                generated.invalidate(key);
+                throw new RuntimeException("Excel hisobotini tayyorlab bo'lmadi: " + workbook.error);
+            }
+            reusedCounter.increment();
+            return workbook.file;
+        }
+
+        boolean closedPeriod = last.isBefore(current);
+        YearMonth from = first;
+        YearMonth to = last;
+        try {
+            generating.computeIfAbsent(key, k -> {
+                // A generation may have finished since the lookup above; it removes itself from
+                // generating only after storing the file, so this check can't miss it
+                if (generated.getIfPresent(k) != null) {
+                    return null;
+                }
+                return executor.submit(() -> generate(k, branchId, from, to, closedPeriod));
+            });
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("Excel hisobotlari navbati to'la. Keyinroq urinib ko'ring.", 30);
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        generated.invalidateAll();
+    }
+
+    private void generate(String key, Long branchId, YearMonth from, YearMonth to, boolean closedPeriod) {
+        try {
+            // Shares the report permits, and so the reporting pool, with report requests
+            databaseBulkhead.runAsReport(() -> {
+                generateFile(key, branchId, from, to, closedPeriod);
+                return null;
+            });
+        } finally {
+            generating.remove(key);
+        }
+    }
+
+    private void generateFile(String key, Long branchId, YearMonth from, YearMonth to, boolean closedPeriod) {
+        Path file = null;
+        try {
+            file = Files.createTempFile("istudy-workbook-", ".xlsx");
+            Path target = file;
+            generateTimer.recordCallable(() -> {
+                write(target, branchId, from, to);
+                return null;
+            });
+            generated.put(key, new Generated(file, null, closedPeriod));
+            log.info("Generated workbook {} ({} bytes)", key, Files.size(file));
+        } catch (Exception e) {
+            log.warn("Workbook {} failed: {}", key, e.getMessage());
+            if (file != null) {
+                deleteQuietly(file);
+            }
+            generated.put(key, new Generated(null, e.getMessage(), false));
+        }
+    }
+
+    private void write(Path file, Long branchId, YearMonth from, YearMonth to) throws IOException {
+        List<Branch> branches = branchId != null
+                ? List.of(branchRepository.findById(branchId)
+                        .orElseThrow(() -> new RuntimeException("Filial topilmadi: " + branchId)))
+                : branchRepository.findAll();
+
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        try {
+            workbook.setCompressTempFiles(true);
+            Styles styles = new Styles(workbook);
+            SheetWriter summary = new SheetWriter(workbook.createSheet("Financial summary"), SUMMARY_COLUMNS, styles);
+            SheetWriter payroll = new SheetWriter(workbook.createSheet("Payroll"), PAYROLL_COLUMNS, styles);
+            SheetWriter unpaid = new SheetWriter(workbook.createSheet("Unpaid students"), UNPAID_COLUMNS, styles);
+
+            for (Branch branch : branches) {
+                for (YearMonth period = from; !period.isAfter(to); period = period.plusMonths(1)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IOException("Workbook generation interrupted");
+                    }
+                    int year = period.getYear();
+                    int month = period.getMonthValue();
+
+                    Map<String, Object> financial = reportService.getFinancialSummary(branch.getId(), year, month);
+                    summary.row(branch.getName(), year, month, financial.get("studentPayments"),
+                            financial.get("productSales"), financial.get("totalIncome"),
+                            financial.get("regularExpenses"), financial.get("salaryPayments"),
+                            financial.get("totalExpenses"), financial.get("netProfit"));
+
+                    for (SalaryCalculationDto salary : teacherSalaryService.calculateSalariesForBranch(branch.getId(), year, month)) {
+                        payroll.row(branch.getName(), year, month, salary.getTeacherName(), salary.getBaseSalary(),
+                                salary.getPaymentBasedSalary(), salary.getTotalSalary(), salary.getAlreadyPaid(),
+                                salary.getRemainingAmount(), null, salary.getTotalStudents(), salary.getTotalStudentPayments());
+                        if (salary.getGroups() != null) {
+                            // Group rows leave the salary columns empty so they can be summed per column
+                            for (GroupSalaryInfo group : salary.getGroups()) {
+                                payroll.row(branch.getName(), year, month, salary.getTeacherName(), null, null, null,
+                                        null, null, group.getGroupName(), group.getStudentCount(),
+                                        group.getTotalGroupPayments());
+                            }
+                        }
+                    }
+
+                    for (UnpaidStudentDto student : studentService.getUnpaidStudents(branch.getId(), year, month)) {
+                        unpaid.row(branch.getName(), year, month, student.getId(), student.getFirstName(),
+                                student.getLastName(), student.getPhoneNumber(), student.getParentPhoneNumber(),
+                                student.getGroupName(), student.getRemainingAmount());
+                    }
+                }
+            }
+
+            try (OutputStream out = Files.newOutputStream(file)) {
+                workbook.write(out);
+            }
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete workbook file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private record Generated(Path file, String error, boolean closedPeriod) {
+    }
+
+    private static final class Styles {
+        private final CellStyle header;
+        private final CellStyle money;
+
+        Styles(SXSSFWorkbook workbook) {
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            this.header = workbook.createCellStyle();
+            this.header.setFont(bold);
+            this.money = workbook.createCellStyle();
+            this.money.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+        }
+    }
+
+    private static final class SheetWriter {
+        private final Sheet sheet;
+        private final Styles styles;
+        private int rowIndex;
+
+        SheetWriter(Sheet sheet, List<String> columns, Styles styles) {
+            this.sheet = sheet;
+            this.styles = styles;
+            Row header = sheet.createRow(rowIndex++);
+            for (int i = 0; i < columns.size(); i++) {
+                header.createCell(i).setCellValue(columns.get(i));
+                header.getCell(i).setCellStyle(styles.header);
+            }
+            sheet.createFreezePane(0, 1);
+        }
+
+        void row(Object... values) {
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                if (value instanceof BigDecimal decimal) {
+                    row.createCell(i).setCellValue(decimal.doubleValue());
+                    row.getCell(i).setCellStyle(styles.money);
+                } else if (value instanceof Number number) {
+                    row.createCell(i).setCellValue(number.doubleValue());
+                } else {
+                    row.createCell(i).setCellValue(value.toString());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+-- Entity ids move from IDENTITY columns to sequences (pooled-lo optimizer, allocationSize = 50)
+-- so Hibernate can batch inserts. Each sequence starts just above the current max id of its
+-- table. On a fresh database the tables don't exist yet and the sequences start at 1.
+DO $$
+DECLARE
+    t       RECORD;
+    next_id BIGINT;
+BEGIN
+    FOR t IN SELECT * FROM (VALUES
+            ('attendances'),
+            ('branches'),
+            ('expenses'),
+            ('groups'),
+            ('payments'),
+            ('product_sales'),
+            ('refresh_tokens'),
+            ('revoked_tokens'),
+            ('students'),
+            ('teachers'),
+            ('teacher_salary_payments'),
+            ('users')
+        ) AS v(table_name)
+    LOOP
+        next_id := 1;
+        IF to_regclass(t.table_name) IS NOT NULL THEN
+            EXECUTE format('SELECT COALESCE(MAX(id), 0) + 1 FROM %I', t.table_name) INTO next_id;
+        END IF;
+
+        EXECUTE format('CREATE SEQUENCE IF NOT EXISTS %I START WITH %s INCREMENT BY 50',
+                       t.table_name || '_seq', next_id);
+        PERFORM setval(t.table_name || '_seq', next_id, false);
+    END LOOP;
+END $$;
@@ -0,0 +1,146 @@
+package com.ogabek.istudy.controller;
+
+import com.ogabek.istudy.support.QueryBudget;
+import com.ogabek.istudy.support.QueryCounter;
+import com.ogabek.istudy.support.TestDataSeeder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static com.ogabek.istudy.support.TestDataSeeder.GROUPS;
+import static com.ogabek.istudy.support.TestDataSeeder.STUDENTS;
+import static com.ogabek.istudy.support.TestDataSeeder.TEACHERS;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fails when an endpoint issues more SQL than its budget against a branch of
+ * {@value TestDataSeeder#STUDENTS} students, so an N+1 shows up as a test failure
+ * instead of a slow page in production.
+ *
+ * <p>Budgets are per request and include the user lookup done by {@code BranchAccessControl}.
+ * The second-level cache is off so the numbers reflect a cold cache.
+ *
+ * <p>Endpoints marked with a known issue still issue queries per row. Their budget is a ratchet
+ * at today's count, written in terms of the seeded rows so the per-row cost is visible: the test
+ * fails if they get worse, and the budget should be lowered, and the reason dropped, as soon as
+ * the service is fixed.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.ogabek.istudy.support.QueryCounter",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestDataSeeder.class)
+@WithMockUser(username = "superadmin", roles = "SUPER_ADMIN")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    // Every student is in two groups
+    private static final int STUDENTS_PER_GROUP = 2 * STUDENTS / GROUPS;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestDataSeeder seeder;
+
+    record Endpoint(String path, int budget, String knownIssue) {
+
+        Endpoint(String path, int budget) {
+            this(path, budget, null);
+        }
+
+        @Override
+        public String toString() {
+            return path;
+        }
+    }
+
+    static Stream<Endpoint> endpoints() {
+        String ym = "year=" + TODAY.getYear() + "&month=" + TODAY.getMonthValue();
+        return Stream.of(
+                new Endpoint("/api/branches", 2),
+                new Endpoint("/api/users", 2),
+                new Endpoint("/api/teachers?branchId={branchId}", 3),
+                new Endpoint("/api/teachers/{teacherId}", 3),
+                new Endpoint("/api/students?branchId={branchId}", 2 + 5 * STUDENTS + GROUPS,
+                        "StudentService.convertToDto loads groups and four payment aggregates per student"),
+                new Endpoint("/api/students?branchId={branchId}&" + ym, 2 + 5 * STUDENTS + GROUPS,
+                        "StudentService.convertToDto loads groups and four payment aggregates per student"),
+                new Endpoint("/api/students/unpaid?branchId={branchId}", 2 + GROUPS + 2 * STUDENTS,
+                        "StudentService.getUnpaidStudents sums payments per student"),
+                new Endpoint("/api/students/{studentId}", 8 + GROUPS,
+                        "StudentService.convertToDto loads the roster of every group in the branch"),
+                new Endpoint("/api/groups?branchId={branchId}", 2 + GROUPS,
+                        "GroupService.convertToDto initializes the students collection of each group"),
+                new Endpoint("/api/groups/{groupId}?" + ym, 2 + STUDENTS_PER_GROUP,
+                        "GroupService.calculateStudentPayments sums payments per student"),
+                new Endpoint("/api/payments?branchId={branchId}", 3),
+                new Endpoint("/api/payments/student/{studentId}", 3),
+                new Endpoint("/api/attendance/group/{groupId}/date/" + TODAY, 3),
+                new Endpoint("/api/attendance/group/{groupId}/summary?" + ym, 1 + 2 * STUDENTS_PER_GROUP,
+                        "AttendanceService.getGroupAttendanceSummary counts attendance per student"),
+                new Endpoint("/api/expenses?branchId={branchId}", 3),
+                new Endpoint("/api/product-sales?branchId={branchId}", 3),
+                new Endpoint("/api/reports/financial/summary?branchId={branchId}&" + ym, 10),
+                new Endpoint("/api/teacher-salaries/calculate/branch/{branchId}?" + ym,
+                        2 + 3 * TEACHERS + GROUPS + 2 * STUDENTS,
+                        "TeacherSalaryService counts paying students per group per teacher"),
+                new Endpoint("/api/teacher-salaries/payments/branch/{branchId}", 3),
+                new Endpoint("/api/dashboard/stats", 12,
+                        "DashboardService loads every payment of each branch to sum revenue")
+        );
+    }
+
+    @BeforeAll
+    void seed() {
+        seeder.seed(TODAY);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("endpoints")
+    void endpointStaysWithinQueryBudget(Endpoint endpoint) throws Exception {
+        String path = resolve(endpoint.path());
+
+        QueryCounter.reset();
+        mockMvc.perform(get(path)).andExpect(status().isOk());
+
+        QueryBudget.assertWithin("GET " + path, endpoint.budget());
+    }
+
+    @Test
+    void rejectedRefreshTokenCostsOneLookup() throws Exception {
+        QueryCounter.reset();
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"not-a-real-token\"}"))
+                .andExpect(status().is4xxClientError());
+
+        QueryBudget.assertWithin("POST /api/auth/refresh", 1);
+    }
+
+    private String resolve(String template) {
+        return template
+                .replace("{branchId}", String.valueOf(seeder.getBranch().getId()))
+                .replace("{groupId}", String.valueOf(seeder.getGroup().getId()))
+                .replace("{studentId}", String.valueOf(seeder.getStudent().getId()))
+                .replace("{teacherId}", String.valueOf(seeder.getTeacher().getId()));
+    }
+}
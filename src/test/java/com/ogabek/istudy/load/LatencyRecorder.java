@@ -0,0 +1,70 @@
+package com.ogabek.istudy.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects response times per endpoint and turns them into percentiles. Samples are kept in full;
+ * a run of a few minutes is tens of thousands of longs.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Samples> samples = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long nanos, boolean success) {
+        samples.computeIfAbsent(endpoint, key -> new Samples()).add(nanos, success);
+    }
+
+    Map<String, Summary> summarize(double seconds) {
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        samples.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> summaries.put(e.getKey(), e.getValue().summarize(seconds)));
+        return summaries;
+    }
+
+    record Summary(int requests, int errors, double throughput, double p50, double p95, double p99, double max) {
+
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+
+    private static class Samples {
+
+        private final List<Long> nanos = new ArrayList<>();
+        private int errors;
+
+        synchronized void add(long value, boolean success) {
+            nanos.add(value);
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized Summary summarize(double seconds) {
+            long[] sorted = nanos.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return new Summary(sorted.length, errors, sorted.length / seconds,
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                    sorted.length == 0 ? 0 : millis(sorted[sorted.length - 1]));
+        }
+
+        // Nearest-rank percentile, in milliseconds
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+            return millis(sorted[Math.max(0, rank - 1)]);
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
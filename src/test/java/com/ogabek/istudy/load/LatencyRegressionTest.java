@@ -0,0 +1,316 @@
+package com.ogabek.istudy.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end latency regression suite. Boots the application on a random port against a seeded
+ * PostgreSQL database (see application-loadtest.properties), drives a weighted mix of the main
+ * endpoints from concurrent virtual-thread clients and fails when an endpoint's p95 or error rate
+ * exceeds the limits in {@code load/latency-thresholds.properties}.
+ *
+ * <p>Not part of {@code ./gradlew test}; run with {@code ./gradlew loadTest}. Seed the database
+ * first with the synthetic-data profile. The suite writes payments and attendance.
+ *
+ * <p>Tunables (Gradle {@code -P} or JVM {@code -D}): {@code load.clients}, {@code load.warmup-seconds},
+ * {@code load.duration-seconds}, {@code load.branch-id}, {@code load.username}, {@code load.password},
+ * {@code load.threshold.<endpoint>.p95}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class LatencyRegressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private String accessToken;
+    private Fixture fixture;
+
+    record Operation(String name, int weight, Function<Client, HttpRequest.Builder> request) {
+    }
+
+    /**
+     * What the scenario needs from the seeded data: a branch and its group rosters.
+     */
+    record Fixture(long branchId, List<Long> groupIds, Map<Long, List<Long>> studentsByGroup) {
+    }
+
+    /**
+     * One simulated admin. Bulk attendance only goes to the client's own groups (or its own date)
+     * so concurrent clients never race on the attendance unique key.
+     */
+    record Client(int index, SplittableRandom random, List<Long> ownGroups, LocalDate attendanceDate) {
+    }
+
+    @Test
+    void endpointLatenciesStayWithinThresholds() throws Exception {
+        int clients = Integer.getInteger("load.clients", 16);
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration-seconds", 60));
+        Properties thresholds = loadThresholds();
+
+        accessToken = login();
+        fixture = loadFixture();
+        List<Operation> mix = operations();
+
+        run(mix, clients, warmup, new LatencyRecorder());
+
+        LatencyRecorder recorder = new LatencyRecorder();
+        long started = System.nanoTime();
+        run(mix, clients, duration, recorder);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Map<String, LatencyRecorder.Summary> summaries = recorder.summarize(seconds);
+        report(summaries, clients, seconds);
+
+        List<String> regressions = new ArrayList<>();
+        double maxErrorRate = Double.parseDouble(thresholds.getProperty("error-rate", "0.01"));
+        for (Operation operation : mix) {
+            LatencyRecorder.Summary summary = summaries.get(operation.name());
+            assertThat(summary).as("no samples for " + operation.name()).isNotNull();
+
+            String limit = thresholds.getProperty(operation.name() + ".p95");
+            if (limit != null && summary.p95() > Double.parseDouble(limit)) {
+                regressions.add(String.format("%s p95 %.1f ms > %s ms", operation.name(), summary.p95(), limit));
+            }
+            if (summary.errorRate() > maxErrorRate) {
+                regressions.add(String.format("%s error rate %.2f%% > %.2f%%",
+                        operation.name(), summary.errorRate() * 100, maxErrorRate * 100));
+            }
+        }
+        assertThat(regressions).as("latency regressions").isEmpty();
+    }
+
+    private List<Operation> operations() {
+        LocalDate today = LocalDate.now();
+        String period = "year=" + today.getYear() + "&month=" + today.getMonthValue();
+        long branchId = fixture.branchId();
+
+        return List.of(
+                new Operation("student-list", 30,
+                        c -> get("/api/students?branchId=" + branchId)),
+                new Operation("unpaid-students", 15,
+                        c -> get("/api/students/unpaid?branchId=" + branchId + "&" + period)),
+                new Operation("dashboard", 10,
+                        c -> get("/api/dashboard/stats")),
+                new Operation("financial-summary", 15,
+                        c -> get("/api/reports/financial/summary?branchId=" + branchId + "&" + period)),
+                new Operation("create-payment", 20, c -> {
+                    long groupId = pick(c.random(), fixture.groupIds());
+                    long studentId = pick(c.random(), fixture.studentsByGroup().get(groupId));
+                    return post("/api/payments", Map.of(
+                            "studentId", studentId,
+                            "groupId", groupId,
+                            "branchId", branchId,
+                            "amount", 100000,
+                            "category", "CASH",
+                            "description", "load test",
+                            "paymentYear", today.getYear(),
+                            "paymentMonth", today.getMonthValue()));
+                }),
+                new Operation("bulk-attendance", 10, c -> {
+                    long groupId = pick(c.random(), c.ownGroups());
+                    List<Map<String, Object>> items = new ArrayList<>();
+                    for (Long studentId : fixture.studentsByGroup().get(groupId)) {
+                        items.add(Map.of("studentId", studentId,
+                                "status", c.random().nextInt(10) < 9 ? "PRESENT" : "ABSENT"));
+                    }
+                    return post("/api/attendance/bulk", Map.of(
+                            "groupId", groupId,
+                            "branchId", branchId,
+                            "attendanceDate", c.attendanceDate().toString(),
+                            "attendances", items));
+                })
+        );
+    }
+
+    private void run(List<Operation> mix, int clients, Duration duration, LatencyRecorder recorder) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        int totalWeight = mix.stream().mapToInt(Operation::weight).sum();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                Client client = newClient(i, clients);
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = choose(mix, client.random().nextInt(totalWeight));
+                        send(operation, client, recorder);
+                    }
+                });
+            }
+        }
+    }
+
+    private void send(Operation operation, Client client, LatencyRecorder recorder) {
+        HttpRequest request = operation.request().apply(client)
+                .header("Authorization", "Bearer " + accessToken)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        long started = System.nanoTime();
+        boolean success;
+        try {
+            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        recorder.record(operation.name(), System.nanoTime() - started, success);
+    }
+
+    private Client newClient(int index, int clients) {
+        List<Long> groups = fixture.groupIds();
+        List<Long> own = new ArrayList<>();
+        for (int g = index; g < groups.size(); g += clients) {
+            own.add(groups.get(g));
+        }
+        LocalDate date = LocalDate.now();
+        if (own.isEmpty()) {
+            // More clients than groups: share a group, but on a date nobody else uses
+            own.add(groups.get(index % groups.size()));
+            date = date.minusDays(index / groups.size());
+        }
+        return new Client(index, new SplittableRandom(index), own, date);
+    }
+
+    private Fixture loadFixture() {
+        Long branchId = Long.getLong("load.branch-id");
+        if (branchId == null) {
+            branchId = jdbcTemplate.queryForObject(
+                    "SELECT branch_id FROM students WHERE deleted = false " +
+                            "GROUP BY branch_id ORDER BY count(*) DESC LIMIT 1", Long.class);
+        }
+
+        Map<Long, List<Long>> studentsByGroup = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "SELECT gs.group_id, gs.student_id FROM group_students gs " +
+                        "JOIN groups g ON g.id = gs.group_id " +
+                        "JOIN students s ON s.id = gs.student_id " +
+                        "WHERE g.branch_id = ? AND g.deleted = false AND s.deleted = false " +
+                        "ORDER BY gs.group_id, gs.student_id",
+                rs -> {
+                    studentsByGroup.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(rs.getLong(2));
+                },
+                branchId);
+        assertThat(studentsByGroup).as("groups with students in branch " + branchId).isNotEmpty();
+
+        return new Fixture(branchId, List.copyOf(studentsByGroup.keySet()), studentsByGroup);
+    }
+
+    private String login() throws Exception {
+        HttpRequest request = post("/api/auth/login", Map.of(
+                "username", System.getProperty("load.username", "superadmin"),
+                "password", System.getProperty("load.password", "admin123")))
+                .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as("login: " + response.body()).isEqualTo(200);
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.get("accessToken").asText();
+    }
+
+    private void report(Map<String, LatencyRecorder.Summary> summaries, int clients, double seconds) throws IOException {
+        StringBuilder table = new StringBuilder(String.format(
+                "%nLatency over %.0fs with %d clients%n%-20s %8s %7s %9s %9s %9s %9s %9s%n",
+                seconds, clients, "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        summaries.forEach((name, s) -> table.append(String.format(
+                "%-20s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                name, s.requests(), s.errors(), s.throughput(), s.p50(), s.p95(), s.p99(), s.max())));
+        System.out.println(table);
+
+        Path reportDir = Path.of(System.getProperty("load.report-dir", "build/reports/latency"));
+        Files.createDirectories(reportDir);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", clients);
+        report.put("seconds", seconds);
+        report.put("endpoints", summaries);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportDir.resolve("summary.json").toFile(), report);
+    }
+
+    private Properties loadThresholds() throws IOException {
+        Properties thresholds = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/load/latency-thresholds.properties")) {
+            if (in != null) {
+                thresholds.load(in);
+            }
+        }
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("load.threshold."))
+                .forEach(name -> thresholds.setProperty(
+                        name.substring("load.threshold.".length()), System.getProperty(name)));
+        return thresholds;
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(uri(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static Operation choose(List<Operation> mix, int roll) {
+        for (Operation operation : mix) {
+            roll -= operation.weight();
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private static <T> T pick(SplittableRandom random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
@@ -0,0 +1,125 @@
+package com.ogabek.istudy.repository;
+
+import com.ogabek.istudy.entity.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sequence-generated ids let Hibernate group inserts into JDBC batches
+ * (hibernate.jdbc.batch_size=10). With IDENTITY every row was its own statement.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class InsertBatchingTest {
+
+    private static final int ROWS = 30;
+    private static final int BATCH_SIZE = 10;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Branch branch;
+    private Group group;
+    private List<Student> students;
+
+    @BeforeEach
+    void setUp() {
+        branch = new Branch();
+        branch.setName("Test Branch");
+        entityManager.persist(branch);
+
+        group = new Group();
+        group.setName("Test Group");
+        group.setPrice(new BigDecimal("500000"));
+        group.setBranch(branch);
+        entityManager.persist(group);
+
+        students = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            students.add(newStudent(i));
+        }
+        students.forEach(entityManager::persist);
+        entityManager.flush();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void studentInsertsAreBatched() {
+        for (int i = 0; i < ROWS; i++) {
+            entityManager.persist(newStudent(ROWS + i));
+        }
+        entityManager.flush();
+
+        assertInsertsBatched();
+    }
+
+    @Test
+    void paymentInsertsAreBatched() {
+        for (Student student : students) {
+            Payment payment = new Payment();
+            payment.setStudent(student);
+            payment.setGroup(group);
+            payment.setBranch(branch);
+            payment.setAmount(new BigDecimal("500000"));
+            payment.setPaymentYear(2025);
+            payment.setPaymentMonth(9);
+            entityManager.persist(payment);
+        }
+        entityManager.flush();
+
+        assertInsertsBatched();
+    }
+
+    @Test
+    void attendanceInsertsAreBatched() {
+        for (Student student : students) {
+            Attendance attendance = new Attendance();
+            attendance.setStudent(student);
+            attendance.setGroup(group);
+            attendance.setBranch(branch);
+            attendance.setAttendanceDate(LocalDate.of(2025, 9, 1));
+            attendance.setStatus(AttendanceStatus.PRESENT);
+            entityManager.persist(attendance);
+        }
+        entityManager.flush();
+
+        assertInsertsBatched();
+    }
+
+    private void assertInsertsBatched() {
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS);
+        // One statement per batch, plus one sequence call for the whole block of ids
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(ROWS / BATCH_SIZE + 1);
+    }
+
+    private Student newStudent(int index) {
+        Student student = new Student();
+        student.setFirstName("Student" + index);
+        student.setLastName("Test");
+        student.setBranch(branch);
+        return student;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ogabek.istudy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportWriterTest {
+
+    @Test
+    void formulasInTextAreNeutralized() throws IOException {
+        assertThat(csvValue("=SUM(A1:A9)")).isEqualTo("'=SUM(A1:A9)");
+        assertThat(csvValue("+HYPERLINK(\"http://x\")")).isEqualTo("\"'+HYPERLINK(\"\"http://x\"\")\"");
+        assertThat(csvValue("-2+3")).isEqualTo("'-2+3");
+        assertThat(csvValue("@SUM(1)")).isEqualTo("'@SUM(1)");
+        assertThat(csvValue("\t=1")).isEqualTo("'\t=1");
+    }
+
+    @Test
+    void phoneNumbersAndSignedAmountsAreLeftAlone() throws IOException {
+        assertThat(csvValue("+998901234567")).isEqualTo("+998901234567");
+        assertThat(csvValue("+998 90 123-45-67")).isEqualTo("+998 90 123-45-67");
+        assertThat(csvValue("+998(90)1234567")).isEqualTo("+998(90)1234567");
+        assertThat(csvValue("-150000.50")).isEqualTo("-150000.50");
+        assertThat(csvValue(new BigDecimal("-150000.50"))).isEqualTo("-150000.50");
+    }
+
+    @Test
+    void separatorsAndQuotesAreQuoted() throws IOException {
+        assertThat(csvValue("Karimov, Aziz")).isEqualTo("\"Karimov, Aziz\"");
+        assertThat(csvValue("\"Ziyo\" markazi")).isEqualTo("\"\"\"Ziyo\"\" markazi\"");
+        assertThat(csvValue("1-qavat\n2-xona")).isEqualTo("\"1-qavat\n2-xona\"");
+        assertThat(csvValue(null)).isEmpty();
+    }
+
+    // The single value of a one-column CSV row, without the header and the line ending
+    private static String csvValue(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ExportWriter writer = ExportWriter.open(ExportService.Format.CSV, out, List.of("value"), new ObjectMapper())) {
+            writer.writeRow(new Object[]{value});
+        }
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertThat(csv).startsWith("value\r\n").endsWith("\r\n");
+        return csv.substring("value\r\n".length(), csv.length() - 2);
+    }
+}
@@ -0,0 +1,182 @@
+package com.ogabek.istudy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ogabek.istudy.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final KeyTable keyTable = new KeyTable();
+    private final IdempotencyService idempotencyService = new IdempotencyService(
+            mock(IdempotencyRecordRepository.class), keyTable, keyTable.transactionManager(),
+            mock(SchedulerLockService.class), new ObjectMapper(), meterRegistry, 24, 1000);
+
+    record Receipt(long paymentId, String amount) {
+    }
+
+    @Test
+    void concurrentDuplicatesRunTheActionOnce() throws Exception {
+        int callers = 8;
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Receipt>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> idempotencyService.execute("payment", "key-1", "request",
+                        Receipt.class, () -> {
+                            executions.incrementAndGet();
+                            started.countDown();
+                            await(release);
+                            return new Receipt(1, "500000");
+                        })));
+                if (i == 0) {
+                    await(started);
+                }
+            }
+            release.countDown();
+
+            for (Future<Receipt> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(new Receipt(1, "500000"));
+            }
+        }
+
+        assertThat(executions).hasValue(1);
+        assertThat(replayed()).isEqualTo(callers - 1);
+    }
+
+    @Test
+    void finishedKeyIsReplayedFromTheTable() {
+        AtomicInteger executions = new AtomicInteger();
+
+        Receipt first = idempotencyService.execute("payment", "key-2", "request", Receipt.class,
+                () -> new Receipt(executions.incrementAndGet(), "250000"));
+        Receipt retried = idempotencyService.execute("payment", "key-2", "request", Receipt.class,
+                () -> new Receipt(executions.incrementAndGet(), "250000"));
+
+        assertThat(retried).isEqualTo(first);
+        assertThat(executions).hasValue(1);
+        assertThat(replayed()).isEqualTo(1);
+    }
+
+    @Test
+    void keyReusedForAnotherRequestIsRejected() {
+        idempotencyService.execute("payment", "key-3", "request", Receipt.class, () -> new Receipt(3, "100000"));
+
+        assertThatThrownBy(() -> idempotencyService.execute("payment", "key-3", "other request", Receipt.class,
+                () -> new Receipt(4, "100000")))
+                .hasMessageContaining(IdempotencyService.HEADER);
+    }
+
+    @Test
+    void failedRequestCanBeRetriedWithTheSameKey() {
+        assertThatThrownBy(() -> idempotencyService.execute("payment", "key-4", "request", Receipt.class, () -> {
+            throw new RuntimeException("O'quvchi topilmadi");
+        })).hasMessage("O'quvchi topilmadi");
+
+        Receipt receipt = idempotencyService.execute("payment", "key-4", "request", Receipt.class,
+                () -> new Receipt(5, "100000"));
+
+        assertThat(receipt).isEqualTo(new Receipt(5, "100000"));
+    }
+
+    private double replayed() {
+        return meterRegistry.counter("istudy.idempotency.replayed").count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stands in for {@code idempotency_keys}: the insert fails on an existing key like the unique
+     * constraint does, a row is readable as soon as it is written, and rollback removes the rows
+     * the transaction inserted.
+     */
+    private static class KeyTable extends JdbcTemplate {
+
+        private final Map<String, String[]> rows = new ConcurrentHashMap<>();
+        private final ThreadLocal<List<String>> inserted = ThreadLocal.withInitial(ArrayList::new);
+
+        PlatformTransactionManager transactionManager() {
+            return new PlatformTransactionManager() {
+                @Override
+                public TransactionStatus getTransaction(TransactionDefinition definition) {
+                    return new SimpleTransactionStatus();
+                }
+
+                @Override
+                public void commit(TransactionStatus status) {
+                    inserted.remove();
+                }
+
+                @Override
+                public void rollback(TransactionStatus status) {
+                    inserted.get().forEach(rows::remove);
+                    inserted.remove();
+                }
+            };
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            if (sql.startsWith("INSERT")) {
+                if (rows.putIfAbsent((String) args[0], new String[]{(String) args[1], null}) != null) {
+                    throw new DuplicateKeyException("duplicate key: " + args[0]);
+                }
+                inserted.get().add((String) args[0]);
+            } else {
+                rows.get((String) args[1])[1] = (String) args[0];
+            }
+            return 1;
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            String[] row = rows.get((String) args[0]);
+            if (row == null) {
+                return List.of();
+            }
+            try {
+                ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.getString("request_hash")).thenReturn(row[0]);
+                when(resultSet.getString("response")).thenReturn(row[1]);
+                return List.of(rowMapper.mapRow(resultSet, 0));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
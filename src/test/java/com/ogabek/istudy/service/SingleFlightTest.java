@@ -0,0 +1,84 @@
+package com.ogabek.istudy.service;
+
+import com.ogabek.istudy.config.ReadYourWrites;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry, new ReadYourWrites(5000));
+
+    @Test
+    void concurrentCallersWithSameKeyShareOneComputation() throws Exception {
+        int callers = 8;
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("dashboard:1", () -> {
+                    computations.incrementAndGet();
+                    await(release);
+                    return "stats";
+                })));
+            }
+            // Let every caller reach the in-flight computation before it completes
+            while (coalesced() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("stats");
+            }
+        }
+
+        assertThat(computations).hasValue(1);
+        assertThat(meterRegistry.counter("istudy.singleflight.computed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void keyIsReleasedOnceTheComputationFinishes() {
+        AtomicInteger computations = new AtomicInteger();
+
+        singleFlight.execute("report:1", computations::incrementAndGet);
+        singleFlight.execute("report:1", computations::incrementAndGet);
+
+        assertThat(computations).hasValue(2);
+    }
+
+    @Test
+    void failureIsRethrownAndNotRemembered() {
+        assertThatThrownBy(() -> singleFlight.execute("salaries:1", () -> {
+            throw new RuntimeException("Branch not found");
+        })).hasMessage("Branch not found");
+
+        assertThat(singleFlight.execute("salaries:1", () -> "ok")).isEqualTo("ok");
+    }
+
+    private double coalesced() {
+        return meterRegistry.counter("istudy.singleflight.coalesced").count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.ogabek.istudy.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ogabek.istudy.config.LongStatements;
+import com.ogabek.istudy.config.ReadYourWrites;
+import com.ogabek.istudy.dto.response.StudentImportResponse;
+import com.ogabek.istudy.repository.BranchRepository;
+import com.ogabek.istudy.repository.GroupRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StudentImportServiceTest {
+
+    private static final long BRANCH_ID = 1L;
+
+    private final Inserts inserts = new Inserts();
+
+    @Test
+    void quotedFieldsKeepCommasQuotesAndLineBreaks() throws IOException {
+        StudentImportService.CsvReader reader = csv(
+                "plain,\"a, b\",\"say \"\"hi\"\"\",\"line 1\r\nline 2\"\r\n" +
+                "last,row");
+
+        assertThat(reader.next()).containsExactly("plain", "a, b", "say \"hi\"", "line 1\r\nline 2");
+        assertThat(reader.next()).containsExactly("last", "row");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void emptyFieldsAndInputAreKept() throws IOException {
+        assertThat(csv("a,,\"\",b\n").next()).containsExactly("a", "", "", "b");
+        assertThat(csv("").next()).isNull();
+    }
+
+    @Test
+    void headerWithByteOrderMarkIsMatchedInAnyOrderAndCase() throws IOException {
+        StudentImportResponse response = importCsv(500, 100,
+                "\uFEFFLASTNAME,firstname,GroupIds\n" +
+                "Karimov,Aziz,10;20\n" +
+                "\"Rahimova\",\"Dilnoza\",\"10 20\"\n");
+
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getFailed()).isZero();
+        assertThat(inserts.students).extracting(row -> row[1] + " " + row[2])
+                .containsExactly("Aziz Karimov", "Dilnoza Rahimova");
+        assertThat(inserts.memberships).extracting(row -> row[0]).containsExactly(10L, 20L, 10L, 20L);
+    }
+
+    @Test
+    void badGroupIdsAreReportedPerRow() throws IOException {
+        StudentImportResponse response = importCsv(500, 100,
+                "firstName,lastName,groupIds\n" +
+                "Aziz,Karimov,10;abc\n" +
+                "Dilnoza,Rahimova,30\n" +
+                "Jasur,Tursunov,20\n");
+
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getErrors()).extracting(StudentImportResponse.RowError::getRow).containsExactly(1, 2);
+        assertThat(response.getErrors().get(0).getMessage()).contains("abc");
+        assertThat(response.getErrors().get(1).getMessage()).contains("30");
+    }
+
+    @Test
+    void failedChunkStopsTheImportAndCountsItsRows() throws IOException {
+        inserts.failOnStudentBatch = 2;
+
+        StudentImportResponse response = importCsv(2, 100, rows(5));
+
+        assertThat(response.isAborted()).isTrue();
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getTotalRows()).isEqualTo(4);
+        assertThat(response.getErrors()).singleElement()
+                .extracting(StudentImportResponse.RowError::getRow).isEqualTo(3);
+    }
+
+    @Test
+    void rowsBeyondTheLimitAreNotRead() throws IOException {
+        StudentImportResponse response = importCsv(2, 3, rows(5));
+
+        assertThat(response.isAborted()).isFalse();
+        assertThat(response.getImported()).isEqualTo(3);
+        assertThat(response.getTotalRows()).isEqualTo(3);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement()
+                .extracting(StudentImportResponse.RowError::getRow).isEqualTo(4);
+        assertThat(inserts.students).hasSize(3);
+    }
+
+    private StudentImportResponse importCsv(int chunkSize, int maxRows, String body) throws IOException {
+        BranchRepository branchRepository = mock(BranchRepository.class);
+        when(branchRepository.existsById(BRANCH_ID)).thenReturn(true);
+        GroupRepository groupRepository = mock(GroupRepository.class);
+        when(groupRepository.findIdsByBranchId(BRANCH_ID)).thenReturn(List.of(10L, 20L));
+
+        StudentImportService service = new StudentImportService(branchRepository, groupRepository, inserts,
+                new SequentialIds(), new NoOpTransactionManager(),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                new ReadYourWrites(5000), new LongStatements(new JdbcTemplate(), "", 0), chunkSize, maxRows);
+        return service.importCsv(BRANCH_ID, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String rows(int count) {
+        StringBuilder csv = new StringBuilder("firstName,lastName\n");
+        for (int i = 1; i <= count; i++) {
+            csv.append("Talaba").append(i).append(",Familiya").append(i).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static StudentImportService.CsvReader csv(String content) {
+        return new StudentImportService.CsvReader(new BufferedReader(new StringReader(content)));
+    }
+
+    // Records the JDBC batches; the student batch numbered failOnStudentBatch fails like a constraint violation
+    private static class Inserts extends JdbcTemplate {
+
+        private final List<Object[]> students = new ArrayList<>();
+        private final List<Object[]> memberships = new ArrayList<>();
+        private int studentBatches;
+        private int failOnStudentBatch;
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            if (sql.startsWith("INSERT INTO students")) {
+                if (++studentBatches == failOnStudentBatch) {
+                    throw new DataIntegrityViolationException("duplicate key");
+                }
+                students.addAll(batchArgs);
+            } else {
+                memberships.addAll(batchArgs);
+            }
+            return new int[batchArgs.size()];
+        }
+    }
+
+    private static class SequentialIds extends SequenceIds {
+
+        private long next = 1;
+
+        SequentialIds() {
+            super(null);
+        }
+
+        @Override
+        public long[] reserve(String sequence, int count) {
+            long[] ids = new long[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = next++;
+            }
+            return ids;
+        }
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ogabek.istudy.support;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fails with the recorded SQL when a block of code issues more statements than it is allowed.
+ */
+public final class QueryBudget {
+
+    private static final int MAX_STATEMENTS_REPORTED = 20;
+
+    private QueryBudget() {
+    }
+
+    public static void assertWithin(String label, int budget) {
+        List<String> statements = QueryCounter.statements();
+        if (statements.size() <= budget) {
+            return;
+        }
+        throw new AssertionError(label + " issued " + statements.size()
+                + " statements, budget is " + budget + "\n" + summarize(statements));
+    }
+
+    // Identical statements are grouped so an N+1 shows up as one line with a large count
+    private static String summarize(List<String> statements) {
+        Map<String, Long> counts = statements.stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(MAX_STATEMENTS_REPORTED)
+                .map(e -> String.format("  %5d x %s", e.getValue(), e.getKey()))
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,37 @@
+package com.ogabek.istudy.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hibernate statement inspector that records every SQL statement the session factory prepares.
+ * Register it with {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ * Hibernate instantiates the class itself, so the recorded state is static.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.clear();
+    }
+
+    public static int count() {
+        return STATEMENTS.size();
+    }
+
+    public static List<String> statements() {
+        synchronized (STATEMENTS) {
+            return new ArrayList<>(STATEMENTS);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.ogabek.istudy.support;
+
+import com.ogabek.istudy.entity.*;
+import com.ogabek.istudy.repository.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Seeds one branch with enough rows that per-row queries stand out from per-request ones.
+ */
+@TestComponent
+@RequiredArgsConstructor
+public class TestDataSeeder {
+
+    public static final int STUDENTS = 500;
+    public static final int GROUPS = 20;
+    public static final int TEACHERS = 5;
+
+    private final BranchRepository branchRepository;
+    private final TeacherRepository teacherRepository;
+    private final GroupRepository groupRepository;
+    private final StudentRepository studentRepository;
+    private final PaymentRepository paymentRepository;
+    private final AttendanceRepository attendanceRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ProductSaleRepository productSaleRepository;
+    private final TeacherSalaryPaymentRepository teacherSalaryPaymentRepository;
+
+    @Getter
+    private Branch branch;
+    @Getter
+    private Group group;
+    @Getter
+    private Student student;
+    @Getter
+    private Teacher teacher;
+
+    @Transactional
+    public void seed(LocalDate today) {
+        branch = new Branch();
+        branch.setName("Query Budget Branch");
+        branch.setAddress("Test street");
+        branch = branchRepository.save(branch);
+
+        List<Teacher> teachers = new ArrayList<>();
+        for (int i = 0; i < TEACHERS; i++) {
+            Teacher t = new Teacher();
+            t.setFirstName("Teacher" + i);
+            t.setLastName("Test");
+            t.setPhoneNumber("+99890000" + String.format("%04d", i));
+            t.setBranch(branch);
+            teachers.add(t);
+        }
+        teachers = teacherRepository.saveAll(teachers);
+
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student s = new Student();
+            s.setFirstName("Student" + i);
+            s.setLastName("Test");
+            s.setPhoneNumber("+99891000" + String.format("%04d", i));
+            s.setBranch(branch);
+            students.add(s);
+        }
+        students = studentRepository.saveAll(students);
+
+        // Every student belongs to two groups, every group has 50 students
+        List<Group> groups = new ArrayList<>();
+        for (int i = 0; i < GROUPS; i++) {
+            Group g = new Group();
+            g.setName("Group" + i);
+            g.setPrice(new BigDecimal("500000"));
+            g.setTeacherSalaryPerStudent(new BigDecimal("100000"));
+            g.setTeacher(teachers.get(i % TEACHERS));
+            g.setBranch(branch);
+            g.setStartTime("09:00");
+            g.setEndTime("10:30");
+            g.setDaysOfWeek("MONDAY,WEDNESDAY,FRIDAY");
+            g.setStudents(new HashSet<>());
+            groups.add(g);
+        }
+        for (int i = 0; i < STUDENTS; i++) {
+            groups.get(i % GROUPS).getStudents().add(students.get(i));
+            groups.get((i + 1) % GROUPS).getStudents().add(students.get(i));
+        }
+        groups = groupRepository.saveAll(groups);
+
+        List<Payment> payments = new ArrayList<>();
+        List<Attendance> attendances = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student s = students.get(i);
+            Group g = groups.get(i % GROUPS);
+            if (i % 2 == 0) {
+                Payment p = new Payment();
+                p.setStudent(s);
+                p.setGroup(g);
+                p.setBranch(branch);
+                p.setAmount(i % 4 == 0 ? g.getPrice() : new BigDecimal("250000"));
+                p.setPaymentYear(today.getYear());
+                p.setPaymentMonth(today.getMonthValue());
+                payments.add(p);
+            }
+            Attendance a = new Attendance();
+            a.setStudent(s);
+            a.setGroup(g);
+            a.setBranch(branch);
+            a.setAttendanceDate(today);
+            a.setStatus(i % 5 == 0 ? AttendanceStatus.ABSENT : AttendanceStatus.PRESENT);
+            attendances.add(a);
+        }
+        paymentRepository.saveAll(payments);
+        attendanceRepository.saveAll(attendances);
+
+        List<Expense> expenses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Expense e = new Expense();
+            e.setDescription("Expense" + i);
+            e.setAmount(new BigDecimal("10000"));
+            e.setCategory(ExpenseCategory.values()[i % ExpenseCategory.values().length]);
+            e.setBranch(branch);
+            expenses.add(e);
+        }
+        expenseRepository.saveAll(expenses);
+
+        List<ProductSale> sales = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ProductSale sale = new ProductSale();
+            sale.setProductName("Product" + i);
+            sale.setQuantity(2);
+            sale.setUnitPrice(new BigDecimal("15000"));
+            sale.setTotalAmount(new BigDecimal("30000"));
+            sale.setCategory(ProductCategory.values()[i % ProductCategory.values().length]);
+            sale.setBranch(branch);
+            sale.setStudent(students.get(i));
+            sales.add(sale);
+        }
+        productSaleRepository.saveAll(sales);
+
+        List<TeacherSalaryPayment> salaryPayments = new ArrayList<>();
+        for (Teacher t : teachers) {
+            TeacherSalaryPayment sp = new TeacherSalaryPayment();
+            sp.setTeacher(t);
+            sp.setBranch(branch);
+            sp.setYear(today.getYear());
+            sp.setMonth(today.getMonthValue());
+            sp.setAmount(new BigDecimal("1000000"));
+            salaryPayments.add(sp);
+        }
+        teacherSalaryPaymentRepository.saveAll(salaryPayments);
+
+        group = groups.get(0);
+        student = students.get(0);
+        teacher = teachers.get(0);
+    }
+}